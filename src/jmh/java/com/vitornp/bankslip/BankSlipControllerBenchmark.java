@@ -0,0 +1,66 @@
+package com.vitornp.bankslip;
+
+import com.vitornp.bankslip.dto.BankSlipDetail;
+import com.vitornp.bankslip.model.BankSlip;
+import com.vitornp.bankslip.model.Money;
+import com.vitornp.bankslip.representation.BankSlipResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.vitornp.bankslip.dto.BankSlipStatusValue.PENDING;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BankSlipControllerBenchmark {
+
+    private BankSlipController controller;
+    private BankSlip bankSlip;
+    private BankSlipDetail bankSlipDetail;
+
+    @Setup
+    public void setUp() {
+        controller = new BankSlipController(null, null, null, null, null);
+        bankSlip = BankSlip.builder()
+            .dueDate(LocalDate.now())
+            .totalInCents(Money.ofHundredths(14_900_000))
+            .customer("Benchmark")
+            .build();
+        bankSlipDetail = BankSlipDetail.builder()
+            .id(UUID.randomUUID())
+            .dueDate(LocalDate.now())
+            .totalInCents(Money.ofHundredths(14_900_000))
+            .customer("Benchmark")
+            .status(PENDING)
+            .createdAt(Instant.now())
+            .fine(Money.ofHundredths(74_500))
+            .build();
+    }
+
+    @Benchmark
+    public BankSlipResponse toResponse() {
+        return controller.toResponse(bankSlip);
+    }
+
+    @Benchmark
+    public BankSlipResponse toResponseDetail() {
+        return controller.toResponse(bankSlipDetail);
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.vitornp.bankslip;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import com.vitornp.bankslip.exception.BankSlipNotFoundException;
+import com.vitornp.bankslip.fine.FineRuleEngine;
+import com.vitornp.bankslip.model.BankSlip;
+import com.vitornp.bankslip.repository.BankSlipRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups of ids that do not exist against an in memory H2 with the real schema: the repository query, the previous
+ * {@code queryForObject} path that signalled the miss with an exception, and the service answering a repeated stale
+ * id from the cache.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BankSlipNotFoundBenchmark {
+
+    private SingleConnectionDataSource dataSource;
+    private BankSlipRepository repository;
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+    private BankSlipService service;
+    private UUID staleId;
+
+    @Setup
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:bankSlipNotFoundBenchmark", true);
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        repository = new BankSlipRepository(jdbcTemplate);
+        namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        service = new BankSlipService(repository, null, null, Caffeine.newBuilder().build(),
+            new FineRuleEngine(new BankSlipProperties()), null, Optional.empty(), new BankSlipProperties(),
+            new SimpleMeterRegistry());
+        staleId = UUID.randomUUID();
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public Optional<BankSlip> repositoryFindById() {
+        return repository.findById(UUID.randomUUID());
+    }
+
+    /**
+     * Previous {@link BankSlipRepository#findById(UUID)}, kept as the baseline without the error log it also wrote.
+     */
+    @Benchmark
+    public Optional<BankSlip> repositoryFindByIdWithException() {
+        Map<String, UUID> params = Collections.singletonMap("id", UUID.randomUUID());
+        try {
+            return Optional.ofNullable(namedJdbcTemplate.queryForObject(
+                "SELECT * FROM bank_slip WHERE id = :id", params, (rs, rowNum) -> BankSlip.builder().build()));
+        } catch (EmptyResultDataAccessException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Benchmark
+    public BankSlipNotFoundException serviceFindDetailByIdWhenStale() {
+        try {
+            service.findDetailById(staleId);
+            throw new IllegalStateException("Bank slip " + staleId + " should not exist");
+        } catch (BankSlipNotFoundException e) {
+            return e;
+        }
+    }
+
+}
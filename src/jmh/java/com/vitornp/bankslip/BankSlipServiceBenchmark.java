@@ -0,0 +1,84 @@
+package com.vitornp.bankslip;
+
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import com.vitornp.bankslip.dto.BankSlipStatusValue;
+import com.vitornp.bankslip.fine.FineRuleEngine;
+import com.vitornp.bankslip.model.BankSlip;
+import com.vitornp.bankslip.model.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.temporal.ChronoUnit.DAYS;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BankSlipServiceBenchmark {
+
+    @Param({"PENDING", "PAID", "CANCELED"})
+    private BankSlipStatusValue status;
+
+    @Param({"0", "5", "30"})
+    private int daysOverdue;
+
+    private BankSlipService service;
+    private BankSlip bankSlip;
+
+    @Setup
+    public void setUp() {
+        FineRuleEngine fineRuleEngine = new FineRuleEngine(new BankSlipProperties());
+        service = new BankSlipService(null, null, null, null, fineRuleEngine, null, Optional.empty(),
+            new BankSlipProperties(), new SimpleMeterRegistry());
+        bankSlip = BankSlip.builder()
+            .dueDate(LocalDate.now().minusDays(daysOverdue))
+            .totalInCents(Money.ofHundredths(14_900_000))
+            .customer("Benchmark")
+            .status(status)
+            .statusDate(LocalDate.now())
+            .paymentDate(BankSlipStatusValue.PAID == status ? LocalDate.now() : null)
+            .build();
+    }
+
+    @Benchmark
+    public Money getFine() {
+        return service.getFine(bankSlip);
+    }
+
+    /**
+     * Previous {@link BigDecimal} fine arithmetic, kept as the baseline for {@link #getFine()}.
+     */
+    @Benchmark
+    public BigDecimal getFineWithBigDecimal() {
+        LocalDate paymentDate = BankSlipStatusValue.PENDING == status ? LocalDate.now() : bankSlip.getStatusDate();
+        long daysBetween = DAYS.between(bankSlip.getDueDate(), paymentDate);
+
+        BigDecimal rate = BigDecimal.ZERO;
+        if (daysBetween > 10) {
+            rate = new BigDecimal("0.01");
+        } else if (daysBetween > 0) {
+            rate = new BigDecimal("0.005");
+        }
+
+        return bankSlip.getTotalInCents().toBigDecimal().multiply(rate).setScale(2, RoundingMode.HALF_UP);
+    }
+
+}
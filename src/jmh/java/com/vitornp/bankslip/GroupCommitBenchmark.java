@@ -0,0 +1,136 @@
+package com.vitornp.bankslip;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import com.vitornp.bankslip.exception.BankSlipConflictException;
+import com.vitornp.bankslip.fine.FineRuleEngine;
+import com.vitornp.bankslip.model.BankSlip;
+import com.vitornp.bankslip.model.Money;
+import com.vitornp.bankslip.repository.BankSlipCounterRepository;
+import com.vitornp.bankslip.repository.BankSlipRepository;
+import com.vitornp.bankslip.repository.BankSlipStatusRepository;
+import com.vitornp.bankslip.stats.BankSlipStatsService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Status changes committed per second by many request threads, each in a transaction of its own or through the group
+ * commit writer. The database is a file backed H2 writing on every commit.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GroupCommitBenchmark {
+
+    private static final int BANK_SLIPS = 10_000;
+    private static final int CHUNK_SIZE = 1000;
+
+    @Param({"transaction", "groupCommit"})
+    private String mode;
+
+    private Path directory;
+    private HikariDataSource dataSource;
+    private BankSlipStatusWriter statusWriter;
+    private BankSlipService service;
+    private UUID[] ids;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("groupCommitBenchmark");
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:file:" + directory.resolve("db") + ";WRITE_DELAY=0");
+        dataSource.setMaximumPoolSize(8);
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        BankSlipRepository repository = new BankSlipRepository(jdbcTemplate);
+        BankSlipStatusRepository statusRepository = new BankSlipStatusRepository(jdbcTemplate);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        BankSlipStatsService statsService = new BankSlipStatsService(repository,
+            new BankSlipCounterRepository(jdbcTemplate, transactionManager));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        if ("groupCommit".equals(mode)) {
+            statusWriter = new BankSlipStatusWriter(repository, statusRepository, statsService, transactionTemplate,
+                new BankSlipProperties.GroupCommit(), meterRegistry);
+            statusWriter.start();
+        }
+        service = new BankSlipService(repository, statusRepository, statsService, Caffeine.newBuilder().build(),
+            new FineRuleEngine(new BankSlipProperties()), transactionTemplate, Optional.ofNullable(statusWriter),
+            new BankSlipProperties(), meterRegistry);
+
+        ids = new UUID[BANK_SLIPS];
+        for (int i = 0; i < BANK_SLIPS; i += CHUNK_SIZE) {
+            List<BankSlip> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (int j = 0; j < CHUNK_SIZE; j++) {
+                chunk.add(BankSlip.builder()
+                    .dueDate(LocalDate.now().plusDays(1))
+                    .totalInCents(Money.ofHundredths(14_900))
+                    .customer("Benchmark")
+                    .build());
+            }
+            List<BankSlip> saved = transactionTemplate.execute(status -> service.saveAll(chunk));
+            for (int j = 0; j < CHUNK_SIZE; j++) {
+                ids[i + j] = saved.get(j).getId();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (statusWriter != null) {
+            statusWriter.close();
+        }
+        dataSource.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * A cancellation is a status change even when the bank slip is already canceled, so every call commits one.
+     */
+    @Benchmark
+    public void cancelById() {
+        try {
+            service.cancelById(ids[ThreadLocalRandom.current().nextInt(BANK_SLIPS)]);
+        } catch (BankSlipConflictException e) {
+            // lost to another thread changing the same bank slip
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.vitornp.bankslip.fine;
+
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fines of a page of bank slips, one by one and through the batch evaluation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FineRuleSetBenchmark {
+
+    @Param({"100", "1000"})
+    private int pageSize;
+
+    private FineRuleSet[] ruleSets;
+    private long[] totals;
+    private long[] daysLate;
+
+    @Setup
+    public void setUp() {
+        BankSlipProperties.RuleSet definition = new BankSlipProperties.RuleSet();
+        definition.setDailyInterestInBasisPoints(3);
+        ruleSets = new FineRuleSet[pageSize];
+        Arrays.fill(ruleSets, FineRuleSet.compile("default", definition));
+
+        Random random = new Random(42);
+        totals = random.longs(pageSize, 1, 100_000_000).toArray();
+        daysLate = random.longs(pageSize, -30, 60).toArray();
+    }
+
+    @Benchmark
+    public void fineInHundredths(Blackhole blackhole) {
+        for (int i = 0; i < pageSize; i++) {
+            blackhole.consume(ruleSets[i].fineInHundredths(totals[i], daysLate[i]));
+        }
+    }
+
+    @Benchmark
+    public long[] fineInHundredthsInBatch() {
+        return FineRuleSet.fineInHundredths(ruleSets, totals, daysLate);
+    }
+
+}
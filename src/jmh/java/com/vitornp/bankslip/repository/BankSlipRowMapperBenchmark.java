@@ -0,0 +1,63 @@
+package com.vitornp.bankslip.repository;
+
+import com.vitornp.bankslip.model.BankSlip;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps a row already fetched by H2, so the numbers cover the column reads and the builder but not the query.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BankSlipRowMapperBenchmark {
+
+    private Connection connection;
+    private ResultSet resultSet;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:bankSlipRowMapperBenchmark");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE bank_slip (id UUID, due_date DATE, total_in_cents DECIMAL(19, 2), " +
+                "costumer TEXT, current_status VARCHAR(16), current_status_date DATE, paid_date DATE, " +
+                "created_at TIMESTAMP, version BIGINT)");
+            statement.execute("INSERT INTO bank_slip VALUES (RANDOM_UUID(), CURRENT_DATE, 149000, 'Benchmark', " +
+                "'PAID', CURRENT_DATE, CURRENT_DATE, CURRENT_TIMESTAMP, 0)");
+        }
+
+        resultSet = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY)
+            .executeQuery("SELECT * FROM bank_slip");
+        resultSet.first();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public BankSlip mapRow() throws SQLException {
+        return BankSlipRepository.ROW_MAPPER.mapRow(resultSet, 0);
+    }
+
+}
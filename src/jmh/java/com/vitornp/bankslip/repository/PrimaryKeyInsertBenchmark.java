@@ -0,0 +1,95 @@
+package com.vitornp.bankslip.repository;
+
+import com.vitornp.bankslip.model.Uuids;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Fills a file backed H2 table keyed by UUID from empty, so the numbers include the primary key index growing and
+ * spilling out of the page cache. Each shot inserts all the rows.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrimaryKeyInsertBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"random", "timeOrdered"})
+    private String generator;
+
+    @Param("10000000")
+    private int rows;
+
+    private Supplier<UUID> ids;
+    private Path directory;
+    private Connection connection;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException, SQLException {
+        ids = "random".equals(generator) ? UUID::randomUUID : Uuids::timeOrdered;
+        directory = Files.createTempDirectory("primaryKeyInsertBenchmark");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("db"));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE bank_slip_status (id UUID PRIMARY KEY, bank_slip_id UUID, " +
+                "status VARCHAR(16), created_at TIMESTAMP)");
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException, SQLException {
+        connection.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void insert() throws SQLException {
+        UUID bankSlipId = UUID.randomUUID();
+        Timestamp createdAt = new Timestamp(System.currentTimeMillis());
+        try (PreparedStatement statement = connection.prepareStatement(
+            "INSERT INTO bank_slip_status (id, bank_slip_id, status, created_at) VALUES (?, ?, 'PENDING', ?)")) {
+            for (int i = 1; i <= rows; i++) {
+                statement.setObject(1, ids.get());
+                statement.setObject(2, bankSlipId);
+                statement.setTimestamp(3, createdAt);
+                statement.addBatch();
+                if (i % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+}
@@ -1,57 +1,211 @@
 package com.vitornp.bankslip;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import com.vitornp.bankslip.dto.BankSlipBatchResult;
+import com.vitornp.bankslip.dto.BankSlipCursor;
 import com.vitornp.bankslip.dto.BankSlipDetail;
+import com.vitornp.bankslip.dto.BankSlipFilter;
+import com.vitornp.bankslip.dto.BankSlipPage;
+import com.vitornp.bankslip.dto.BankSlipStatusValue;
+import com.vitornp.bankslip.exception.InvalidBatchException;
+import com.vitornp.bankslip.idempotency.IdempotencyService;
 import com.vitornp.bankslip.model.BankSlip;
-import com.vitornp.bankslip.model.BankSlipStatus;
+import com.vitornp.bankslip.model.Money;
+import com.vitornp.bankslip.representation.BankSlipBatchItemResponse;
+import com.vitornp.bankslip.representation.BankSlipBatchPaymentRequest;
+import com.vitornp.bankslip.representation.BankSlipBatchResultResponse;
 import com.vitornp.bankslip.representation.BankSlipPaymentRequest;
 import com.vitornp.bankslip.representation.BankSlipRequest;
 import com.vitornp.bankslip.representation.BankSlipResponse;
 import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionException;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.CaseFormat.LOWER_CAMEL;
+import static com.google.common.base.CaseFormat.LOWER_UNDERSCORE;
+import static com.vitornp.bankslip.dto.BankSlipBatchResult.ERROR;
+import static com.vitornp.bankslip.dto.BankSlipBatchResult.INVALID;
+import static java.util.Collections.singletonMap;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 @RestController
+@Slf4j
 @RequestMapping(path = "bankslips", produces = APPLICATION_JSON_VALUE)
 public class BankSlipController {
 
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final BankSlipService service;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final BankSlipProperties properties;
+    private final IdempotencyService idempotencyService;
 
     @Autowired
-    public BankSlipController(BankSlipService service) {
+    public BankSlipController(BankSlipService service, ObjectMapper objectMapper, Validator validator,
+                              BankSlipProperties properties, IdempotencyService idempotencyService) {
         this.service = service;
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.properties = properties;
     }
 
-    @ApiOperation(value = "Create a bank slip")
+    @ApiOperation(value = "Create a bank slip, a retry with the same Idempotency-Key and request returns the bank " +
+        "slip created")
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public BankSlipResponse create(@RequestBody @Valid BankSlipRequest request) {
-        BankSlip save = service.save(toModel(request));
-        return toResponse(save);
+    public BankSlipResponse create(
+        @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+        @RequestBody @Valid BankSlipRequest request) {
+        return idempotencyService.execute("POST /bankslips", idempotencyKey, request, BankSlipResponse.class,
+            () -> toResponse(service.save(toModel(request))));
     }
 
-    @ApiOperation(value = "Find all bank slips")
+    @ApiOperation(value = "Create bank slips in batch, reporting the result of each one by its index")
+    @PostMapping("/batch")
+    public List<BankSlipBatchItemResponse> createAll(@RequestBody List<BankSlipRequest> requests) {
+        requireNoNulls(requests);
+        BankSlipBatchItemResponse[] responses = new BankSlipBatchItemResponse[requests.size()];
+        Map<Integer, BankSlip> bankSlipsByIndex = new LinkedHashMap<>();
+        for (int index = 0; index < requests.size(); index++) {
+            Map<String, String> errors = validate(requests.get(index));
+            if (errors.isEmpty()) {
+                bankSlipsByIndex.put(index, toModel(requests.get(index)));
+            } else {
+                responses[index] = BankSlipBatchItemResponse.builder().index(index).errors(errors).build();
+            }
+        }
+
+        int chunkSize = properties.getBatch().getChunkSize();
+        for (List<Map.Entry<Integer, BankSlip>> chunk : Iterables.partition(bankSlipsByIndex.entrySet(), chunkSize)) {
+            try {
+                service.saveAll(chunk.stream().map(Map.Entry::getValue).collect(Collectors.toList()));
+                chunk.forEach(entry -> responses[entry.getKey()] = BankSlipBatchItemResponse.builder()
+                    .index(entry.getKey())
+                    .id(entry.getValue().getId())
+                    .build());
+            } catch (DataAccessException | TransactionException e) {
+                log.error("Error when save a chunk of bank slips", e);
+                chunk.forEach(entry -> responses[entry.getKey()] = BankSlipBatchItemResponse.builder()
+                    .index(entry.getKey())
+                    .errors(singletonMap("bank_slip", "could not be saved"))
+                    .build());
+            }
+        }
+
+        return Arrays.asList(responses);
+    }
+
+    @ApiOperation(value = "Pay bank slips in batch, reporting the result of each one by its id")
+    @PostMapping("/payments/batch")
+    public List<BankSlipBatchResultResponse> paymentAll(@RequestBody List<BankSlipBatchPaymentRequest> requests) {
+        requireNoNulls(requests);
+        List<BankSlipBatchResultResponse> responses = new ArrayList<>(requests.size());
+        Map<UUID, LocalDate> paymentDates = new LinkedHashMap<>();
+        for (BankSlipBatchPaymentRequest request : requests) {
+            Map<String, String> errors = validate(request);
+            if (errors.isEmpty()) {
+                paymentDates.put(request.getId(), request.getPaymentDate());
+            } else {
+                responses.add(BankSlipBatchResultResponse.builder()
+                    .id(request.getId())
+                    .result(INVALID)
+                    .errors(errors)
+                    .build());
+            }
+        }
+
+        responses.addAll(executeInChunks(
+            new ArrayList<>(paymentDates.keySet()),
+            ids -> service.paymentAll(Maps.toMap(ids, paymentDates::get))
+        ));
+        return responses;
+    }
+
+    @ApiOperation(value = "Cancel bank slips in batch, reporting the result of each one by its id")
+    @PostMapping("/cancellations/batch")
+    public List<BankSlipBatchResultResponse> cancelAll(@RequestBody List<UUID> ids) {
+        requireNoNulls(ids);
+        return executeInChunks(ids.stream().distinct().collect(Collectors.toList()), service::cancelAll);
+    }
+
+    @ApiOperation(value = "Find a page of bank slips, the next page cursor is returned in the X-Next-Cursor header " +
+        "and must be sent with the same filters")
     @GetMapping
-    public List<BankSlipResponse> findAll() {
-        return service.findAll()
+    public ResponseEntity<List<BankSlipResponse>> findAll(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "100") int limit,
+        @RequestParam(required = false) String customer,
+        @RequestParam(required = false) BankSlipStatusValue status,
+        @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate dueFrom,
+        @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate dueTo,
+        @RequestParam(required = false) Instant createdFrom) {
+        BankSlipCursor after = cursor == null ? null : BankSlipCursor.decode(cursor);
+        BankSlipFilter filter = BankSlipFilter.builder()
+            .customer(customer)
+            .status(status)
+            .dueFrom(dueFrom)
+            .dueTo(dueTo)
+            .createdFrom(createdFrom)
+            .build();
+        BankSlipPage page = service.findAll(filter, after, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        page.getNext().ifPresent(next -> response.header(NEXT_CURSOR_HEADER, next.encode()));
+
+        return response.body(page.getBankSlips()
             .stream()
             .map(this::toResponse)
-            .collect(Collectors.toList());
+            .collect(Collectors.toList()));
+    }
+
+    @ApiOperation(value = "Stream all bank slips as newline delimited JSON")
+    @GetMapping(params = "stream=true", produces = APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamAll() {
+        return outputStream -> service.streamAll(bankSlipDetail -> writeLine(outputStream, toResponse(bankSlipDetail)));
     }
 
     @ApiOperation(value = "Find by id a bank slip")
@@ -63,8 +217,14 @@ public class BankSlipController {
     @ApiOperation(value = "Pay a bank slip")
     @PostMapping("/{id}/payments")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void paymentById(@PathVariable UUID id, @RequestBody @Valid BankSlipPaymentRequest request) {
-        service.paymentById(id, request.getPaymentDate());
+    public void paymentById(@PathVariable UUID id,
+                            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                            @RequestBody @Valid BankSlipPaymentRequest request) {
+        String operation = "POST /bankslips/" + id + "/payments";
+        idempotencyService.execute(operation, idempotencyKey, request, Void.class, () -> {
+            service.paymentById(id, request.getPaymentDate());
+            return null;
+        });
     }
 
     @ApiOperation(value = "Cancel bank slip")
@@ -74,30 +234,72 @@ public class BankSlipController {
         service.cancelById(id);
     }
 
+    private List<BankSlipBatchResultResponse> executeInChunks(
+        List<UUID> ids,
+        Function<List<UUID>, Map<UUID, BankSlipBatchResult>> operation
+    ) {
+        List<BankSlipBatchResultResponse> responses = new ArrayList<>(ids.size());
+        for (List<UUID> chunk : Lists.partition(ids, properties.getBatch().getChunkSize())) {
+            Map<UUID, BankSlipBatchResult> results;
+            try {
+                results = operation.apply(chunk);
+            } catch (DataAccessException | TransactionException e) {
+                log.error("Error when change the status of a chunk of bank slips", e);
+                results = chunk.stream().collect(Collectors.toMap(Function.identity(), id -> ERROR));
+            }
+            results.forEach((id, result) -> responses.add(BankSlipBatchResultResponse.builder()
+                .id(id)
+                .result(result)
+                .build()));
+        }
+        return responses;
+    }
+
+    private static void requireNoNulls(List<?> items) {
+        if (items.contains(null)) {
+            throw new InvalidBatchException();
+        }
+    }
+
+    private Map<String, String> validate(Object request) {
+        return validator.validate(request)
+            .stream()
+            .collect(Collectors.toMap(
+                violation -> LOWER_CAMEL.to(LOWER_UNDERSCORE, violation.getPropertyPath().toString()),
+                ConstraintViolation::getMessage,
+                (first, second) -> first
+            ));
+    }
+
+    private void writeLine(OutputStream outputStream, BankSlipResponse response) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(response));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private BankSlip toModel(BankSlipRequest request) {
         return BankSlip.builder()
             .dueDate(request.getDueDate())
-            .totalInCents(request.getTotalInCents())
+            .totalInCents(Money.of(request.getTotalInCents()))
             .customer(request.getCustomer())
             .build();
     }
 
-    private BankSlipResponse toResponse(BankSlip bankSlip) {
-        LocalDate paymentDate = bankSlip.getPaidStatus()
-            .map(BankSlipStatus::getDate)
-            .orElse(null);
-
+    BankSlipResponse toResponse(BankSlip bankSlip) {
         return BankSlipResponse.builder()
             .id(bankSlip.getId())
             .dueDate(bankSlip.getDueDate())
-            .paymentDate(paymentDate)
+            .paymentDate(bankSlip.getPaymentDate())
             .totalInCents(bankSlip.getTotalInCents())
             .customer(bankSlip.getCustomer())
-            .status(bankSlip.getLastStatus().getStatus())
+            .status(bankSlip.getStatus())
             .build();
     }
 
-    private BankSlipResponse toResponse(BankSlipDetail bankSlipDetail) {
+    BankSlipResponse toResponse(BankSlipDetail bankSlipDetail) {
         return BankSlipResponse.builder()
             .id(bankSlipDetail.getId())
             .dueDate(bankSlipDetail.getDueDate())
@@ -1,146 +1,506 @@
 package com.vitornp.bankslip;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import com.vitornp.bankslip.dto.BankSlipBatchResult;
+import com.vitornp.bankslip.dto.BankSlipCursor;
 import com.vitornp.bankslip.dto.BankSlipDetail;
+import com.vitornp.bankslip.dto.BankSlipFilter;
+import com.vitornp.bankslip.dto.BankSlipPage;
 import com.vitornp.bankslip.dto.BankSlipStatusValue;
 import com.vitornp.bankslip.exception.BankSlipCanceledException;
+import com.vitornp.bankslip.exception.BankSlipConflictException;
 import com.vitornp.bankslip.exception.BankSlipNotFoundException;
+import com.vitornp.bankslip.fine.FineRuleEngine;
+import com.vitornp.bankslip.fine.FineRuleSet;
 import com.vitornp.bankslip.model.BankSlip;
 import com.vitornp.bankslip.model.BankSlipStatus;
+import com.vitornp.bankslip.model.Money;
 import com.vitornp.bankslip.repository.BankSlipRepository;
 import com.vitornp.bankslip.repository.BankSlipStatusRepository;
+import com.vitornp.bankslip.stats.BankSlipStatsService;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
+import static com.vitornp.bankslip.dto.BankSlipBatchResult.NOT_CANCELABLE;
+import static com.vitornp.bankslip.dto.BankSlipBatchResult.NOT_FOUND;
+import static com.vitornp.bankslip.dto.BankSlipBatchResult.SUCCESS;
 import static com.vitornp.bankslip.dto.BankSlipStatusValue.CANCELED;
 import static com.vitornp.bankslip.dto.BankSlipStatusValue.PAID;
 import static com.vitornp.bankslip.dto.BankSlipStatusValue.PENDING;
-import static java.math.BigDecimal.ROUND_HALF_UP;
-import static java.time.temporal.ChronoUnit.DAYS;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 
 @Service
+@Slf4j
 public class BankSlipService {
 
+    /**
+     * Attempts of a status change, each one rereads the bank slips after losing to a concurrent change.
+     */
+    private static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * Upper bound of the random pause before the first retry, doubled on each one.
+     */
+    private static final long RETRY_BACKOFF_MILLIS = 20;
+
     private final BankSlipRepository repository;
     private final BankSlipStatusRepository statusRepository;
+    private final BankSlipStatsService statsService;
+    private final Cache<UUID, Optional<BankSlip>> cache;
+    private final FineRuleEngine fineRuleEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final BankSlipStatusWriter statusWriter;
+    private final Timer fineTimer;
+
+    /**
+     * Turns of the status changes written in transactions of their own. Every change updates the same counter rows,
+     * so the changes beyond the write pool size would only hold connections waiting for those rows while the others
+     * time out waiting for a connection.
+     */
+    private final Semaphore changePermits;
 
     @Autowired
-    public BankSlipService(BankSlipRepository repository, BankSlipStatusRepository statusRepository) {
+    public BankSlipService(BankSlipRepository repository, BankSlipStatusRepository statusRepository,
+                           BankSlipStatsService statsService, Cache<UUID, Optional<BankSlip>> cache,
+                           FineRuleEngine fineRuleEngine, TransactionTemplate transactionTemplate,
+                           Optional<BankSlipStatusWriter> statusWriter, BankSlipProperties properties,
+                           MeterRegistry meterRegistry) {
         this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
         this.statusRepository = statusRepository;
+        this.statsService = statsService;
+        this.cache = cache;
+        this.fineRuleEngine = fineRuleEngine;
+        this.statusWriter = statusWriter.orElse(null);
+        this.changePermits = new Semaphore(properties.getStatusChanges().getMaxConcurrent(), true);
+        this.fineTimer = Timer.builder("bank_slip.fine")
+            .description("Fine calculation of a bank slip")
+            .register(meterRegistry);
     }
 
     @Transactional
+    @Timed("bank_slip.service")
     public BankSlip save(BankSlip bankSlip) {
-        BankSlip bankSlipSaved = repository.save(bankSlip);
-        BankSlipStatus bankSlipStatus = saveBankSlipStatus(bankSlipSaved.getId(), LocalDate.now(), PENDING);
+        BankSlip bankSlipSaved = repository.save(toPending(bankSlip));
+        statusRepository.save(BankSlipStatus.of(bankSlipSaved));
+        statsService.count(emptyList(), singletonList(bankSlipSaved));
+        afterCommit(() -> cache.put(bankSlipSaved.getId(), Optional.of(bankSlipSaved)));
 
-        return bankSlipSaved.toBuilder()
-            .statuses(singletonList(bankSlipStatus))
-            .build();
+        return bankSlipSaved;
     }
 
-    @Transactional(isolation = Isolation.READ_UNCOMMITTED, readOnly = true)
-    public List<BankSlip> findAll() {
-        return repository.findAll()
-            .stream()
-            .map(bankSlip -> bankSlip.toBuilder()
-                .statuses(statusRepository.findAllByBankSlipId(bankSlip.getId()))
-                .build()
-            )
-            .collect(Collectors.toList());
+    @Transactional
+    @Timed("bank_slip.service")
+    public List<BankSlip> saveAll(List<BankSlip> bankSlips) {
+        List<BankSlip> bankSlipsSaved = repository.saveAll(bankSlips.stream()
+            .map(this::toPending)
+            .collect(Collectors.toList()));
+        statusRepository.saveAll(bankSlipsSaved.stream()
+            .map(BankSlipStatus::of)
+            .collect(Collectors.toList()));
+        statsService.count(emptyList(), bankSlipsSaved);
+
+        return bankSlipsSaved;
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
+    @Timed("bank_slip.service")
+    public BankSlipPage findAll(BankSlipFilter filter, BankSlipCursor after, int limit) {
+        List<BankSlip> bankSlips = repository.findAll(filter, after, limit + 1);
+        if (bankSlips.size() <= limit) {
+            return new BankSlipPage(toDetails(bankSlips), null);
+        }
+
+        List<BankSlip> page = bankSlips.subList(0, limit);
+        BankSlip last = page.get(limit - 1);
+        return new BankSlipPage(toDetails(page), new BankSlipCursor(last.getCreatedAt(), last.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    @Timed("bank_slip.service")
+    public void streamAll(Consumer<BankSlipDetail> consumer) {
+        repository.streamAll(bankSlip -> consumer.accept(toDetail(bankSlip, getFine(bankSlip))));
+    }
+
+    @Timed("bank_slip.service")
     public void paymentById(UUID id, LocalDate paymentDate) {
-        this.findById(id);
-        saveBankSlipStatus(id, paymentDate, PAID);
+        changeById(id, bankSlip -> PAID == bankSlip.getStatus() ? null : withStatus(bankSlip, paymentDate, PAID));
     }
 
-    @Transactional
+    @Timed("bank_slip.service")
     public void cancelById(UUID id) {
-        BankSlip bankSlip = this.findById(id);
+        changeById(id, bankSlip -> {
+            if (PAID == bankSlip.getStatus()) {
+                throw new BankSlipCanceledException(id);
+            }
+
+            return withStatus(bankSlip, LocalDate.now(), CANCELED);
+        });
+    }
+
+    @Timed("bank_slip.service")
+    public Map<UUID, BankSlipBatchResult> paymentAll(Map<UUID, LocalDate> paymentDates) {
+        return retryOnConflict(() -> executeChange(() -> changePaymentAll(paymentDates)));
+    }
+
+    @Timed("bank_slip.service")
+    public Map<UUID, BankSlipBatchResult> cancelAll(Collection<UUID> ids) {
+        return retryOnConflict(() -> executeChange(() -> changeCancelAll(ids)));
+    }
+
+    private Map<UUID, BankSlipBatchResult> changePaymentAll(Map<UUID, LocalDate> paymentDates) {
+        Map<UUID, BankSlip> bankSlips = findAllById(paymentDates.keySet());
+
+        Map<UUID, BankSlipBatchResult> results = new LinkedHashMap<>();
+        List<BankSlip> bankSlipsToChange = new ArrayList<>();
+        List<BankSlip> bankSlipsChanged = new ArrayList<>();
+        paymentDates.forEach((id, paymentDate) -> {
+            BankSlip bankSlip = bankSlips.get(id);
+            if (bankSlip == null) {
+                results.put(id, NOT_FOUND);
+            } else if (PAID == bankSlip.getStatus()) {
+                results.put(id, SUCCESS);
+            } else {
+                bankSlipsToChange.add(bankSlip);
+                bankSlipsChanged.add(withStatus(bankSlip, paymentDate, PAID));
+                results.put(id, SUCCESS);
+            }
+        });
+
+        changeStatuses(bankSlipsToChange, bankSlipsChanged);
+        return results;
+    }
+
+    private Map<UUID, BankSlipBatchResult> changeCancelAll(Collection<UUID> ids) {
+        Map<UUID, BankSlip> bankSlips = findAllById(ids);
+
+        Map<UUID, BankSlipBatchResult> results = new LinkedHashMap<>();
+        List<BankSlip> bankSlipsToChange = new ArrayList<>();
+        List<BankSlip> bankSlipsChanged = new ArrayList<>();
+        LocalDate cancelDate = LocalDate.now();
+        ids.forEach(id -> {
+            BankSlip bankSlip = bankSlips.get(id);
+            if (bankSlip == null) {
+                results.put(id, NOT_FOUND);
+            } else if (PAID == bankSlip.getStatus()) {
+                results.put(id, NOT_CANCELABLE);
+            } else if (!results.containsKey(id)) {
+                bankSlipsToChange.add(bankSlip);
+                bankSlipsChanged.add(withStatus(bankSlip, cancelDate, CANCELED));
+                results.put(id, SUCCESS);
+            }
+        });
+
+        changeStatuses(bankSlipsToChange, bankSlipsChanged);
+        return results;
+    }
+
+    /**
+     * Runs the change again over the bank slips as they are now when it loses to a concurrent change. Inside a
+     * transaction of the caller there is nothing to retry, so the conflict is thrown. The retry waits a random pause
+     * first, without a connection, so the changes that collided do not collide again and the ones waiting for a
+     * connection get it meanwhile.
+     */
+    private <T> T retryOnConflict(Supplier<T> change) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return change.get();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt == MAX_ATTEMPTS || TransactionSynchronizationManager.isActualTransactionActive()) {
+                    throw e;
+                }
+                log.debug("Retrying a status change that lost to a concurrent one, attempt {}", attempt, e);
+                backOff(attempt, e);
+            }
+        }
+    }
+
+    /**
+     * Runs the change in a transaction of its own once it gets its turn, or in the transaction of the caller.
+     */
+    private <T> T executeChange(Supplier<T> change) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return change.get();
+        }
+
+        changePermits.acquireUninterruptibly();
+        try {
+            return transactionTemplate.execute(status -> change.get());
+        } finally {
+            changePermits.release();
+        }
+    }
+
+    private static void backOff(int attempt, ConcurrencyFailureException conflict) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(RETRY_BACKOFF_MILLIS << (attempt - 1)) + 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    /**
+     * Applies the change to the bank slip, a null change leaving it as it is. With group commit the change is written
+     * by the status writer along with the ones of other requests, otherwise in a transaction of its own.
+     */
+    private void changeById(UUID id, UnaryOperator<BankSlip> change) {
+        try {
+            retryOnConflict(() -> statusWriter == null || TransactionSynchronizationManager.isActualTransactionActive()
+                ? executeChange(() -> changeInTransaction(id, change))
+                : changeInGroup(id, change));
+        } catch (ConcurrencyFailureException e) {
+            throw new BankSlipConflictException(id, e);
+        }
+    }
+
+    private Void changeInTransaction(UUID id, UnaryOperator<BankSlip> change) {
+        BankSlip bankSlip = findForChange(id);
+        BankSlip bankSlipChanged = change.apply(bankSlip);
+        if (bankSlipChanged != null) {
+            changeStatus(bankSlip, bankSlipChanged);
+        }
+
+        return null;
+    }
+
+    /**
+     * Waits for the commit of the group with the change, no transaction or connection is held meanwhile. When too
+     * many changes are already waiting, it is written in a transaction of its own instead.
+     */
+    private Void changeInGroup(UUID id, UnaryOperator<BankSlip> change) {
+        BankSlip bankSlip = findForChange(id);
+        BankSlip bankSlipChanged = change.apply(bankSlip);
+        if (bankSlipChanged == null) {
+            return null;
+        }
 
-        if (PAID == bankSlip.getLastStatus().getStatus()) {
-            throw new BankSlipCanceledException(id);
+        cache.invalidate(id);
+        CompletableFuture<Void> committed;
+        try {
+            committed = statusWriter.submit(bankSlip, bankSlipChanged);
+        } catch (RejectedExecutionException e) {
+            log.debug("Writing a status change on its own, {}", e.getMessage());
+            return executeChange(() -> {
+                changeStatus(bankSlip, bankSlipChanged);
+                return null;
+            });
         }
 
-        saveBankSlipStatus(id, LocalDate.now(), CANCELED);
+        try {
+            return committed.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } finally {
+            cache.invalidate(id);
+        }
     }
 
-    @Transactional(isolation = Isolation.READ_UNCOMMITTED, readOnly = true)
+    /**
+     * Reads the bank slip through the cache, the fine is still computed on every call as it depends on the current
+     * date. Unknown ids are cached as well until they expire or the bank slip is saved. They expire soon, as the read
+     * pool may be a replica that has not seen a bank slip just created.
+     */
+    @Transactional(readOnly = true)
+    @Timed("bank_slip.service")
     public BankSlipDetail findDetailById(UUID id) {
-        BankSlip bankSlip = this.findById(id);
-        BigDecimal fine = getFine(bankSlip);
+        BankSlip bankSlip = cache.get(id, repository::findById).orElseThrow(() -> new BankSlipNotFoundException(id));
+        Money fine = fineTimer.record(() -> getFine(bankSlip));
+
+        return toDetail(bankSlip, fine);
+    }
+
+    Money getFine(BankSlip bankSlip) {
+        long daysLate = getDaysLate(bankSlip, LocalDate.now());
+
+        return Money.ofHundredths(fineRuleEngine.getRuleSet(bankSlip.getCustomer())
+            .fineInHundredths(bankSlip.getTotalInCents().getHundredths(), daysLate));
+    }
+
+    /**
+     * Evaluates the fines of a whole page at once, see {@link FineRuleSet#fineInHundredths(FineRuleSet[], long[],
+     * long[])}.
+     */
+    List<Money> getFines(List<BankSlip> bankSlips) {
+        LocalDate today = LocalDate.now();
+        FineRuleSet[] ruleSets = new FineRuleSet[bankSlips.size()];
+        long[] totals = new long[bankSlips.size()];
+        long[] daysLate = new long[bankSlips.size()];
+        for (int i = 0; i < ruleSets.length; i++) {
+            BankSlip bankSlip = bankSlips.get(i);
+            ruleSets[i] = fineRuleEngine.getRuleSet(bankSlip.getCustomer());
+            totals[i] = bankSlip.getTotalInCents().getHundredths();
+            daysLate[i] = getDaysLate(bankSlip, today);
+        }
+
+        long[] fines = fineTimer.record(() -> FineRuleSet.fineInHundredths(ruleSets, totals, daysLate));
+        List<Money> result = new ArrayList<>(fines.length);
+        for (long fine : fines) {
+            result.add(Money.ofHundredths(fine));
+        }
+        return result;
+    }
+
+    private long getDaysLate(BankSlip bankSlip, LocalDate today) {
+        return getPaymentDate(bankSlip, today).toEpochDay() - bankSlip.getDueDate().toEpochDay();
+    }
+
+    private LocalDate getPaymentDate(BankSlip bankSlip, LocalDate today) {
+        switch (bankSlip.getStatus()) {
+            case PAID:
+                return bankSlip.getStatusDate();
+            case CANCELED:
+                return bankSlip.getDueDate();
+            case PENDING:
+            default:
+                return today;
+        }
+    }
 
-        LocalDate paymentDate = bankSlip.getPaidStatus()
-            .map(BankSlipStatus::getDate)
-            .orElse(null);
+    private List<BankSlipDetail> toDetails(List<BankSlip> bankSlips) {
+        List<Money> fines = getFines(bankSlips);
+        List<BankSlipDetail> details = new ArrayList<>(bankSlips.size());
+        for (int i = 0; i < bankSlips.size(); i++) {
+            details.add(toDetail(bankSlips.get(i), fines.get(i)));
+        }
+        return details;
+    }
 
+    private BankSlipDetail toDetail(BankSlip bankSlip, Money fine) {
         return BankSlipDetail.builder()
             .id(bankSlip.getId())
             .dueDate(bankSlip.getDueDate())
-            .paymentDate(paymentDate)
+            .paymentDate(bankSlip.getPaymentDate())
             .totalInCents(bankSlip.getTotalInCents())
             .customer(bankSlip.getCustomer())
-            .status(bankSlip.getLastStatus().getStatus())
+            .status(bankSlip.getStatus())
             .createdAt(bankSlip.getCreatedAt())
             .fine(fine)
             .build();
     }
 
-    private BigDecimal getFine(BankSlip bankSlip) {
-        LocalDate paymentDate = getPaymentDate(bankSlip);
-
-        long daysBetween = DAYS.between(bankSlip.getDueDate(), paymentDate);
+    private BankSlip toPending(BankSlip bankSlip) {
+        return bankSlip.toBuilder()
+            .status(PENDING)
+            .statusDate(LocalDate.now())
+            .paymentDate(null)
+            .build();
+    }
 
-        BigDecimal rate = BigDecimal.ZERO;
-        if (daysBetween > 10) {
-            rate = new BigDecimal("0.01");
-        } else if (daysBetween > 0) {
-            rate = new BigDecimal("0.005");
+    /**
+     * Takes the bank slip from the cache when present, the version check on update rejects a stale copy and the
+     * retry then reads the database as the change evicted it. Paid is final, so a cached paid bank slip is current.
+     */
+    private BankSlip findForChange(UUID id) {
+        Optional<BankSlip> cached = cache.getIfPresent(id);
+        if (cached != null && cached.isPresent()) {
+            return cached.get();
         }
 
-        BigDecimal totalInCents = bankSlip.getTotalInCents();
+        return repository.findById(id).orElseThrow(() -> new BankSlipNotFoundException(id));
+    }
 
-        return totalInCents.multiply(rate).setScale(2, ROUND_HALF_UP);
+    /**
+     * @return null, so nothing is cached, when the bank slip is not found in a read only transaction
+     */
+    private Map<UUID, BankSlip> findAllById(Collection<UUID> ids) {
+        return repository.findAllByIds(ids)
+            .stream()
+            .collect(Collectors.toMap(BankSlip::getId, Function.identity()));
     }
 
-    private LocalDate getPaymentDate(BankSlip bankSlip) {
-        BankSlipStatus lastStatus = bankSlip.getLastStatus();
-        switch (lastStatus.getStatus()) {
-            case PAID:
-                return lastStatus.getDate();
-            case CANCELED:
-                return bankSlip.getDueDate();
-            case PENDING:
-            default:
-                return LocalDate.now();
+    private void changeStatus(BankSlip bankSlip, BankSlip bankSlipChanged) {
+        evict(singletonList(bankSlipChanged.getId()));
+        repository.updateStatus(bankSlipChanged);
+        statusRepository.save(BankSlipStatus.of(bankSlipChanged));
+        statsService.count(singletonList(bankSlip), singletonList(bankSlipChanged));
+    }
+
+    private void changeStatuses(List<BankSlip> bankSlipsToChange, List<BankSlip> bankSlipsChanged) {
+        if (bankSlipsChanged.isEmpty()) {
+            return;
         }
+
+        List<UUID> ids = bankSlipsChanged.stream().map(BankSlip::getId).collect(Collectors.toList());
+        evict(ids);
+        repository.updateStatuses(bankSlipsChanged);
+        statusRepository.saveAll(bankSlipsChanged.stream()
+            .map(BankSlipStatus::of)
+            .collect(Collectors.toList()));
+        statsService.count(bankSlipsToChange, bankSlipsChanged);
     }
 
-    private BankSlip findById(UUID id) {
-        BankSlip bankSlip = repository.findById(id).orElseThrow(() -> new BankSlipNotFoundException(id));
-        List<BankSlipStatus> statuses = statusRepository.findAllByBankSlipId(bankSlip.getId());
-        return bankSlip.toBuilder().statuses(statuses).build();
+    /**
+     * Evicts the bank slips now and once the transaction completes, so a read that ran concurrently with the change
+     * can not leave a stale or rolled back bank slip in the cache.
+     */
+    private void evict(List<UUID> ids) {
+        cache.invalidateAll(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidateAll(ids);
+                }
+            });
+        }
     }
 
-    private BankSlipStatus saveBankSlipStatus(UUID bankSlipId, LocalDate date, BankSlipStatusValue status) {
-        BankSlipStatus bankSlipStatus = BankSlipStatus.builder()
-            .bankSlipId(bankSlipId)
-            .date(date)
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private BankSlip withStatus(BankSlip bankSlip, LocalDate date, BankSlipStatusValue status) {
+        LocalDate paymentDate = PAID == status && bankSlip.getPaymentDate() == null ? date : bankSlip.getPaymentDate();
+        return bankSlip.toBuilder()
             .status(status)
+            .statusDate(date)
+            .paymentDate(paymentDate)
+            .version(bankSlip.getVersion() + 1)
             .build();
-        statusRepository.save(bankSlipStatus);
-        return bankSlipStatus;
     }
 
 }
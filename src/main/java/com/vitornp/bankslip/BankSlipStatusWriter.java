@@ -0,0 +1,186 @@
+package com.vitornp.bankslip;
+
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import com.vitornp.bankslip.model.BankSlip;
+import com.vitornp.bankslip.model.BankSlipStatus;
+import com.vitornp.bankslip.repository.BankSlipRepository;
+import com.vitornp.bankslip.repository.BankSlipStatusRepository;
+import com.vitornp.bankslip.stats.BankSlipStatsService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+/**
+ * Group commit of the status changes of single bank slips: the requests queue their change and wait, while a writer
+ * thread takes every change waiting and writes them in one transaction with batched statements, so one commit serves
+ * many requests. The bank slip, its status history and the counters still change together, and a request returns
+ * only once its change is committed.
+ */
+@Slf4j
+public class BankSlipStatusWriter implements Closeable {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final BankSlipRepository repository;
+    private final BankSlipStatusRepository statusRepository;
+    private final BankSlipStatsService statsService;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final BlockingQueue<StatusChange> changes;
+    private final DistributionSummary batchSizes;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public BankSlipStatusWriter(BankSlipRepository repository, BankSlipStatusRepository statusRepository,
+                                BankSlipStatsService statsService, TransactionTemplate transactionTemplate,
+                                BankSlipProperties.GroupCommit properties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.statusRepository = statusRepository;
+        this.statsService = statsService;
+        this.transactionTemplate = transactionTemplate;
+        this.maxBatchSize = properties.getMaxBatchSize();
+        this.changes = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.batchSizes = DistributionSummary.builder("bank_slip.group_commit.batch_size")
+            .description("Status changes written per commit")
+            .register(meterRegistry);
+        this.thread = new Thread(this::run, "bankSlipStatusWriter");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Stops taking changes and waits for the ones already queued to be written.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        StatusChange change;
+        while ((change = changes.poll()) != null) {
+            change.committed.completeExceptionally(new RejectedExecutionException("Bank slip status writer closed"));
+        }
+    }
+
+    /**
+     * @return completed once the change is committed, or exceptionally with an
+     * {@link OptimisticLockingFailureException} when the bank slip was changed since it was read
+     * @throws RejectedExecutionException if the writer is closed or too many changes are waiting
+     */
+    CompletableFuture<Void> submit(BankSlip bankSlip, BankSlip bankSlipChanged) {
+        if (!running) {
+            throw new RejectedExecutionException("Bank slip status writer closed");
+        }
+
+        StatusChange change = new StatusChange(bankSlip, bankSlipChanged);
+        if (!changes.offer(change)) {
+            throw new RejectedExecutionException("Too many bank slip status changes waiting");
+        }
+        return change.committed;
+    }
+
+    private void run() {
+        List<StatusChange> batch = new ArrayList<>(maxBatchSize);
+        while (running || !changes.isEmpty()) {
+            try {
+                StatusChange first = changes.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                changes.drainTo(batch, maxBatchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<StatusChange> batch) {
+        batchSizes.record(batch.size());
+        try {
+            transactionTemplate.execute(status -> {
+                writeInTransaction(batch);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.error("Error when write {} bank slip status changes", batch.size(), e);
+            batch.forEach(change -> change.committed.completeExceptionally(e));
+            return;
+        }
+
+        for (StatusChange change : batch) {
+            if (change.written) {
+                change.committed.complete(null);
+            } else {
+                change.committed.completeExceptionally(new OptimisticLockingFailureException(
+                    format("Bank slip '%s' changed concurrently", change.bankSlip.getId())));
+            }
+        }
+    }
+
+    /**
+     * Changes of the same bank slip in a batch are applied in order, so only the first one matches its version.
+     */
+    private void writeInTransaction(List<StatusChange> batch) {
+        int[] updated = repository.tryUpdateStatuses(batch.stream()
+            .map(change -> change.bankSlipChanged)
+            .collect(Collectors.toList()));
+
+        List<BankSlip> bankSlips = new ArrayList<>(batch.size());
+        List<BankSlip> bankSlipsChanged = new ArrayList<>(batch.size());
+        for (int i = 0; i < updated.length; i++) {
+            StatusChange change = batch.get(i);
+            change.written = updated[i] != 0;
+            if (change.written) {
+                bankSlips.add(change.bankSlip);
+                bankSlipsChanged.add(change.bankSlipChanged);
+            }
+        }
+        if (bankSlipsChanged.isEmpty()) {
+            return;
+        }
+
+        statusRepository.saveAll(bankSlipsChanged.stream().map(BankSlipStatus::of).collect(Collectors.toList()));
+        statsService.count(bankSlips, bankSlipsChanged);
+    }
+
+    private static class StatusChange {
+
+        private final BankSlip bankSlip;
+        private final BankSlip bankSlipChanged;
+        private final CompletableFuture<Void> committed = new CompletableFuture<>();
+        private boolean written;
+
+        StatusChange(BankSlip bankSlip, BankSlip bankSlipChanged) {
+            this.bankSlip = bankSlip;
+            this.bankSlipChanged = bankSlipChanged;
+        }
+
+    }
+
+}
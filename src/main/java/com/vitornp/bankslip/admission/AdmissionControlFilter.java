@@ -0,0 +1,142 @@
+package com.vitornp.bankslip.admission;
+
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds the requests being handled at a time, so bursts queue here, visible in the metrics, instead of in the
+ * Tomcat and connection pool queues. A request waits for its turn for a limited time, behind a limited number of
+ * other requests, otherwise it is answered with 429 and a Retry-After header.
+ *
+ * <p>An asynchronous request, as a streamed response, holds its turn until it completes rather than until the filter
+ * returns. Server-sent event streams are not bounded here, they stay open while idle and the change feed bounds them.
+ */
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final int maxWaitingRequests;
+    private final long maxWaitNanos;
+    private final long retryAfterSeconds;
+    private final Counter rejected;
+
+    public AdmissionControlFilter(BankSlipProperties.Admission properties, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(properties.getMaxConcurrentRequests());
+        this.maxWaitingRequests = properties.getMaxWaitingRequests();
+        this.maxWaitNanos = properties.getMaxWait().toNanos();
+        this.retryAfterSeconds = Math.max(1, properties.getMaxWait().getSeconds());
+
+        Gauge.builder("bank_slip.admission.in_flight", permits,
+            semaphore -> properties.getMaxConcurrentRequests() - semaphore.availablePermits())
+            .description("Requests being handled")
+            .register(meterRegistry);
+        Gauge.builder("bank_slip.admission.waiting", waiting, AtomicInteger::get)
+            .description("Requests waiting to be handled")
+            .register(meterRegistry);
+        this.rejected = Counter.builder("bank_slip.admission.rejected")
+            .description("Requests answered with 429 as too many were being handled")
+            .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        if (!admit()) {
+            rejected.increment();
+            log.warn("Rejecting {} {}, too many requests", request.getMethod(), request.getRequestURI());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+            return;
+        }
+
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion());
+            } else {
+                permits.release();
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+
+    private boolean admit() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (waiting.incrementAndGet() > maxWaitingRequests) {
+            waiting.decrementAndGet();
+            return false;
+        }
+
+        try {
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private class ReleaseOnCompletion implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.vitornp.bankslip.changes;
+
+import com.vitornp.bankslip.model.BankSlipStatus;
+import com.vitornp.bankslip.representation.BankSlipChangeResponse;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
+
+@RestController
+@RequestMapping(path = "bankslips")
+public class BankSlipChangeController {
+
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final BankSlipChangeService service;
+    private final BankSlipChangeFeed feed;
+
+    @Autowired
+    public BankSlipChangeController(BankSlipChangeService service, BankSlipChangeFeed feed) {
+        this.service = service;
+        this.feed = feed;
+    }
+
+    @ApiOperation(value = "Find the status changes written after the since sequence in order, the sequence of the " +
+        "last one is the since of the next page")
+    @GetMapping(path = "/changes", produces = APPLICATION_JSON_VALUE)
+    public List<BankSlipChangeResponse> findAllAfter(@RequestParam(defaultValue = "0") long since,
+                                                     @RequestParam(defaultValue = "100") int limit) {
+        return service.findAllAfter(since, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)))
+            .stream()
+            .map(BankSlipChangeController::toResponse)
+            .collect(Collectors.toList());
+    }
+
+    @ApiOperation(value = "Stream as server-sent events the status changes written after the since sequence, the " +
+        "Last-Event-ID header or, without both, from now on")
+    @GetMapping(path = "/changes", produces = TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) Long since,
+                             @RequestHeader(name = LAST_EVENT_ID_HEADER, required = false) Long lastEventId) {
+        return feed.subscribe(lastEventId != null ? lastEventId : since);
+    }
+
+    @ApiOperation(value = "Stream as server-sent events the current status of the bank slip and then its status " +
+        "changes, the stream ends once it is paid or canceled")
+    @GetMapping(path = "/{id}/events", produces = TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamById(@PathVariable UUID id) {
+        return feed.subscribe(id);
+    }
+
+    static BankSlipChangeResponse toResponse(BankSlipStatus change) {
+        return BankSlipChangeResponse.builder()
+            .sequence(change.getSequence())
+            .bankSlipId(change.getBankSlipId())
+            .status(change.getStatus())
+            .date(change.getDate())
+            .createdAt(change.getCreatedAt())
+            .build();
+    }
+
+}
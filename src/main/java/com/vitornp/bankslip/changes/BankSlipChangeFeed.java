@@ -0,0 +1,348 @@
+package com.vitornp.bankslip.changes;
+
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import com.vitornp.bankslip.exception.BankSlipNotFoundException;
+import com.vitornp.bankslip.exception.BankSlipSubscribersBusyException;
+import com.vitornp.bankslip.model.BankSlipStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.vitornp.bankslip.dto.BankSlipStatusValue.CANCELED;
+import static com.vitornp.bankslip.dto.BankSlipStatusValue.PAID;
+
+/**
+ * Pushes the status changes to the stream subscribers, either of every change or of the changes of one bank slip.
+ * Each poll reads a page after the last change read and hands it to the subscribers of its bank slips and to the
+ * subscribers of every change that are up to date, so the database load does not grow with them and changes made by
+ * any instance or by the batch endpoints are pushed too. A subscriber of every change that is behind reads a page
+ * after its own position per poll instead, so it never holds back the others.
+ *
+ * <p>The poll only queues the events, a bounded pool of sender threads writes them, so a client that does not read
+ * holds at most one sender and never the poll. A subscriber with more than {@value #MAX_PENDING_EVENTS} events
+ * waiting is dropped and reconnects with the Last-Event-ID header. Idle streams hold no thread.
+ */
+@Component
+@Slf4j
+public class BankSlipChangeFeed implements Closeable {
+
+    static final String CHANGE_EVENT = "change";
+    static final String STATUS_EVENT = "status";
+
+    private static final int PAGE_SIZE = 500;
+    private static final int MAX_PENDING_EVENTS = 2 * PAGE_SIZE;
+
+    private final BankSlipChangeService service;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+    private final int maxSubscribersPerBankSlip;
+    private final ThreadPoolExecutor senders;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<UUID, Set<Subscriber>> bankSlipSubscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile long position = -1;
+
+    @Autowired
+    public BankSlipChangeFeed(BankSlipChangeService service, BankSlipProperties properties,
+                              MeterRegistry meterRegistry) {
+        BankSlipProperties.Changes changes = properties.getChanges();
+        this.service = service;
+        this.timeoutMillis = changes.getStreamTimeout().toMillis();
+        this.maxSubscribers = changes.getMaxSubscribers();
+        this.maxSubscribersPerBankSlip = changes.getMaxSubscribersPerBankSlip();
+
+        // A subscriber has at most one send task queued, so the queue never fills with the subscribers capped
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(changes.getSenderThreads(), changes.getSenderThreads(),
+            0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(maxSubscribers), runnable -> {
+                Thread thread = new Thread(runnable, "bankSlipChangeSender-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        Gauge.builder("bank_slip.changes.subscribers", connections, AtomicInteger::get)
+            .description("Streams of bank slip changes open")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Streams every change after the sequence, or from now on when it is null.
+     *
+     * @throws BankSlipSubscribersBusyException if too many streams are open
+     */
+    public SseEmitter subscribe(Long since) {
+        reserve();
+        Subscriber subscriber = new Subscriber(CHANGE_EVENT, null, since != null ? since : position());
+        subscriber.emitter.onCompletion(() -> {
+            subscribers.remove(subscriber);
+            connections.decrementAndGet();
+        });
+        subscribers.add(subscriber);
+        return subscriber.emitter;
+    }
+
+    /**
+     * Streams the current status of the bank slip and then its changes, until it is paid or canceled. The current
+     * status is read once subscribed, so a change committed meanwhile is in it or pushed after it, and a change older
+     * than one already sent is skipped.
+     *
+     * @throws BankSlipSubscribersBusyException if too many streams are open, in total or of the bank slip
+     * @throws BankSlipNotFoundException if the bank slip does not exist
+     */
+    public SseEmitter subscribe(UUID bankSlipId) {
+        reserve();
+        Subscriber subscriber = new Subscriber(STATUS_EVENT, bankSlipId, position());
+        AtomicBoolean added = new AtomicBoolean();
+        bankSlipSubscribers.compute(bankSlipId, (id, bankSlip) -> {
+            Set<Subscriber> subscribed = bankSlip != null ? bankSlip : ConcurrentHashMap.newKeySet();
+            if (subscribed.size() < maxSubscribersPerBankSlip) {
+                added.set(subscribed.add(subscriber));
+            }
+            return subscribed.isEmpty() ? null : subscribed;
+        });
+        if (!added.get()) {
+            connections.decrementAndGet();
+            throw new BankSlipSubscribersBusyException();
+        }
+
+        BankSlipStatus current;
+        try {
+            current = service.findLastByBankSlipId(bankSlipId)
+                .orElseThrow(() -> new BankSlipNotFoundException(bankSlipId));
+        } catch (RuntimeException e) {
+            unsubscribe(subscriber);
+            connections.decrementAndGet();
+            throw e;
+        }
+
+        subscriber.emitter.onCompletion(() -> {
+            unsubscribe(subscriber);
+            connections.decrementAndGet();
+        });
+        subscriber.offerCurrent(current);
+        return subscriber.emitter;
+    }
+
+    @Scheduled(fixedDelayString = "#{@bankSlipProperties.changes.pollInterval.toMillis()}")
+    public void publish() {
+        long from = position();
+        List<BankSlipStatus> changes = service.findAllAfter(from, PAGE_SIZE);
+        for (BankSlipStatus change : changes) {
+            Set<Subscriber> bankSlip = bankSlipSubscribers.get(change.getBankSlipId());
+            if (bankSlip != null) {
+                bankSlip.forEach(subscriber -> subscriber.offer(change));
+            }
+        }
+
+        // The subscribers behind at the same position share their page
+        Map<Long, List<BankSlipStatus>> pages = new HashMap<>();
+        for (Subscriber subscriber : subscribers) {
+            long after = subscriber.sequence;
+            List<BankSlipStatus> page = after >= from
+                ? changes
+                : pages.computeIfAbsent(after, sequence -> service.findAllAfter(sequence, PAGE_SIZE));
+            page.forEach(subscriber::offer);
+        }
+
+        if (!changes.isEmpty()) {
+            position = Math.max(position, changes.get(changes.size() - 1).getSequence());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "#{@bankSlipProperties.changes.heartbeatInterval.toMillis()}")
+    public void heartbeat() {
+        subscribers.forEach(Subscriber::heartbeat);
+        bankSlipSubscribers.values().forEach(bankSlip -> bankSlip.forEach(Subscriber::heartbeat));
+    }
+
+    @Override
+    public void close() {
+        senders.shutdownNow();
+    }
+
+    /**
+     * Last sequence read, every change up to it was handed to the subscribers of its bank slip.
+     */
+    private long position() {
+        if (position < 0) {
+            position = service.findLastSequence();
+        }
+        return position;
+    }
+
+    private void reserve() {
+        if (connections.incrementAndGet() > maxSubscribers) {
+            connections.decrementAndGet();
+            throw new BankSlipSubscribersBusyException();
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (subscriber.bankSlipId == null) {
+            subscribers.remove(subscriber);
+            return;
+        }
+
+        bankSlipSubscribers.computeIfPresent(subscriber.bankSlipId, (id, bankSlip) -> {
+            bankSlip.remove(subscriber);
+            return bankSlip.isEmpty() ? null : bankSlip;
+        });
+    }
+
+    private static SseEmitter.SseEventBuilder toEvent(String name, BankSlipStatus change) {
+        return SseEmitter.event()
+            .id(String.valueOf(change.getSequence()))
+            .name(name)
+            .data(BankSlipChangeController.toResponse(change));
+    }
+
+    @FunctionalInterface
+    private interface Send {
+
+        void to(SseEmitter emitter) throws IOException;
+
+    }
+
+    /**
+     * Queues its events and writes them in order on one sender thread at a time.
+     */
+    private class Subscriber {
+
+        private final SseEmitter emitter = new SseEmitter(timeoutMillis);
+        private final String eventName;
+        private final UUID bankSlipId;
+        private final Queue<Send> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean dropped;
+        private boolean started;
+
+        /**
+         * Last sequence queued, the older changes are skipped.
+         */
+        private volatile long sequence;
+
+        Subscriber(String eventName, UUID bankSlipId, long sequence) {
+            this.eventName = eventName;
+            this.bankSlipId = bankSlipId;
+            this.sequence = sequence;
+            this.emitter.onTimeout(emitter::complete);
+        }
+
+        synchronized void offer(BankSlipStatus change) {
+            if (change.getSequence() <= sequence) {
+                return;
+            }
+
+            sequence = change.getSequence();
+            push(change);
+        }
+
+        /**
+         * Queues the current status of the bank slip first, even when older than the position it subscribed at,
+         * unless a newer change was already queued.
+         */
+        synchronized void offerCurrent(BankSlipStatus current) {
+            if (started && current.getSequence() <= sequence) {
+                return;
+            }
+
+            sequence = Math.max(sequence, current.getSequence());
+            push(current);
+        }
+
+        void heartbeat() {
+            queue(emitter -> emitter.send(SseEmitter.event().comment("")));
+        }
+
+        private void push(BankSlipStatus change) {
+            started = true;
+            SseEmitter.SseEventBuilder event = toEvent(eventName, change);
+            queue(emitter -> emitter.send(event));
+            if (bankSlipId != null && (PAID == change.getStatus() || CANCELED == change.getStatus())) {
+                unsubscribe(this);
+                queue(SseEmitter::complete);
+            }
+        }
+
+        private void queue(Send send) {
+            if (dropped) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > MAX_PENDING_EVENTS) {
+                drop("too many events waiting");
+                return;
+            }
+            pending.add(send);
+            schedule();
+        }
+
+        private void drop(String reason) {
+            if (dropped) {
+                return;
+            }
+
+            log.debug("Dropping a bank slip change subscriber, {}", reason);
+            dropped = true;
+            unsubscribe(this);
+            schedule();
+        }
+
+        private void schedule() {
+            if (sending.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::send);
+                } catch (RejectedExecutionException e) {
+                    sending.set(false);
+                    dropped = true;
+                    unsubscribe(this);
+                }
+            }
+        }
+
+        private void send() {
+            Send send;
+            while (!dropped && (send = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                try {
+                    send.to(emitter);
+                } catch (IOException | IllegalStateException e) {
+                    drop(e.getMessage());
+                }
+            }
+            if (dropped) {
+                pending.clear();
+                emitter.complete();
+                return;
+            }
+
+            sending.set(false);
+            if (!pending.isEmpty()) {
+                schedule();
+            }
+        }
+
+    }
+
+}
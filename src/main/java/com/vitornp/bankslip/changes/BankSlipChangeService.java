@@ -0,0 +1,56 @@
+package com.vitornp.bankslip.changes;
+
+import com.vitornp.bankslip.model.BankSlipStatus;
+import com.vitornp.bankslip.repository.BankSlipStatusRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Feed of the status changes of the bank slips in the order they were committed, read from the status history written
+ * in the same transaction as each change, so consumers process only what changed since the last sequence they saw.
+ */
+@Service
+public class BankSlipChangeService {
+
+    private final BankSlipStatusRepository statusRepository;
+
+    @Autowired
+    public BankSlipChangeService(BankSlipStatusRepository statusRepository) {
+        this.statusRepository = statusRepository;
+    }
+
+    /**
+     * Page of the status changes after the sequence. The sequences are taken in commit order, so a change committed
+     * later always comes after the page; a gap is a deleted change and is skipped.
+     */
+    @Transactional(readOnly = true)
+    @Timed("bank_slip.service")
+    public List<BankSlipStatus> findAllAfter(long sequence, int limit) {
+        return statusRepository.findAllAfter(sequence, limit);
+    }
+
+    /**
+     * Last status change of the bank slip, its current status.
+     */
+    @Transactional(readOnly = true)
+    @Timed("bank_slip.service")
+    public Optional<BankSlipStatus> findLastByBankSlipId(UUID bankSlipId) {
+        return statusRepository.findAllByBankSlipId(bankSlipId)
+            .stream()
+            .max(Comparator.comparing(BankSlipStatus::getSequence));
+    }
+
+    @Transactional(readOnly = true)
+    @Timed("bank_slip.service")
+    public long findLastSequence() {
+        return statusRepository.findLastSequence();
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.vitornp.bankslip.configuration;
+
+import com.vitornp.bankslip.admission.AdmissionControlFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "bank-slip.admission.enabled", havingValue = "true")
+public class AdmissionControlConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(BankSlipProperties properties,
+                                                                                 MeterRegistry meterRegistry) {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+            new AdmissionControlFilter(properties.getAdmission(), meterRegistry));
+        registration.addUrlPatterns("/bankslips", "/bankslips/*", "/overdue/*");
+        return registration;
+    }
+
+}
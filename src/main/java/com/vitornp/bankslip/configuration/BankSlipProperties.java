@@ -0,0 +1,288 @@
+package com.vitornp.bankslip.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+
+@Component
+@ConfigurationProperties(prefix = "bank-slip")
+@Getter
+@Setter
+public class BankSlipProperties {
+
+    private Batch batch = new Batch();
+
+    private Reconciliation reconciliation = new Reconciliation();
+
+    private Cache cache = new Cache();
+
+    private Fine fine = new Fine();
+
+    private Overdue overdue = new Overdue();
+
+    private Idempotency idempotency = new Idempotency();
+
+    private Admission admission = new Admission();
+
+    private GroupCommit groupCommit = new GroupCommit();
+
+    private StatusChanges statusChanges = new StatusChanges();
+
+    private Changes changes = new Changes();
+
+    @Getter
+    @Setter
+    public static class Batch {
+
+        /**
+         * Number of bank slips written per JDBC batch and per transaction.
+         */
+        private int chunkSize = 500;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Reconciliation {
+
+        /**
+         * Directory of the reconciliation files to import, also used to store the uploaded ones.
+         */
+        private String directory = System.getProperty("java.io.tmpdir") + "/bank-slip/reconciliation";
+
+        /**
+         * Number of lines read, parsed and written at a time by each stage of an import.
+         */
+        private int batchSize = 1000;
+
+        /**
+         * Number of batches waiting between two stages of an import.
+         */
+        private int queueCapacity = 4;
+
+        private int maxConcurrentImports = 2;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+
+        private long maximumSize = 100_000;
+
+        /**
+         * How long a bank slip is served from the cache, bounding how stale it can be when it is changed by another
+         * instance of the application.
+         */
+        private Duration expireAfterWrite = Duration.ofSeconds(10);
+
+        /**
+         * How long an id that does not exist is served from the cache, short as the bank slip may be created by
+         * another instance meanwhile or not be on the replica serving the reads yet.
+         */
+        private Duration negativeExpireAfterWrite = Duration.ofSeconds(1);
+
+    }
+
+    @Getter
+    @Setter
+    public static class Overdue {
+
+        /**
+         * When the overdue sweep runs, daily by default.
+         */
+        private String cron = "0 0 1 * * *";
+
+        /**
+         * Number of pending bank slips read, evaluated and written at a time by the overdue sweep.
+         */
+        private int chunkSize = 1000;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Admission {
+
+        /**
+         * Whether the requests are bounded, off by default.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Requests handled at a time, beyond it they wait.
+         */
+        private int maxConcurrentRequests = 64;
+
+        /**
+         * Requests waiting for their turn, beyond it they are rejected with 429.
+         */
+        private int maxWaitingRequests = 128;
+
+        /**
+         * How long a request waits for its turn before it is rejected with 429.
+         */
+        private Duration maxWait = Duration.ofSeconds(1);
+
+    }
+
+    @Getter
+    @Setter
+    public static class StatusChanges {
+
+        /**
+         * Status changes written at a time in transactions of their own, the others wait for their turn without a
+         * connection. Below the write pool size, so the other writes still get a connection.
+         */
+        private int maxConcurrent = 4;
+
+    }
+
+    @Getter
+    @Setter
+    public static class GroupCommit {
+
+        /**
+         * Whether the status changes of single bank slips are written in groups by a writer thread, one commit for
+         * all the changes waiting, instead of one transaction each.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Status changes written per transaction at most.
+         */
+        private int maxBatchSize = 256;
+
+        /**
+         * Status changes waiting for the writer, beyond it they are written in a transaction of their own.
+         */
+        private int queueCapacity = 4096;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Changes {
+
+        /**
+         * How often new status changes are pushed to the stream subscribers.
+         */
+        private Duration pollInterval = Duration.ofMillis(500);
+
+        /**
+         * How long a stream stays open, the clients reconnect with the Last-Event-ID header to resume.
+         */
+        private Duration streamTimeout = Duration.ofMinutes(5);
+
+        /**
+         * How often an empty comment is sent to every stream, keeping idle connections open through proxies and
+         * detecting the clients gone.
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+        /**
+         * Streams open at a time, beyond it they are rejected with 429. The container must accept as many
+         * connections, see server.tomcat.max-connections.
+         */
+        private int maxSubscribers = 10_000;
+
+        /**
+         * Streams of the same bank slip open at a time, beyond it they are rejected with 429.
+         */
+        private int maxSubscribersPerBankSlip = 16;
+
+        /**
+         * Threads writing the events to the streams, a client that does not read holds one until its write fails.
+         */
+        private int senderThreads = 4;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Idempotency {
+
+        private long maximumSize = 100_000;
+
+        /**
+         * How long the response of a request is replayed to the retries with the same idempotency key.
+         */
+        private Duration timeToLive = Duration.ofHours(24);
+
+        /**
+         * How long a request may run before a retry with the same idempotency key runs it again, in case the instance
+         * running it stopped or could not store its response.
+         */
+        private Duration lockTimeout = Duration.ofMinutes(1);
+
+        /**
+         * When the expired idempotency keys are deleted, hourly by default.
+         */
+        private String cleanupCron = "0 30 * * * *";
+
+    }
+
+    @Getter
+    @Setter
+    public static class Fine {
+
+        /**
+         * Rule set applied to the customers not listed in customers.
+         */
+        private String defaultRuleSet = "default";
+
+        private Map<String, RuleSet> ruleSets = new LinkedHashMap<>(singletonMap("default", new RuleSet()));
+
+        /**
+         * Rule set name by customer, for the customers with a contract other than the default one.
+         */
+        private Map<String, String> customers = new LinkedHashMap<>();
+
+    }
+
+    @Getter
+    @Setter
+    public static class RuleSet {
+
+        /**
+         * Days after the due date a bank slip can still be paid without any fine or interest.
+         */
+        private int graceDays = 0;
+
+        /**
+         * Penalties by days late, the tier with the greatest after-days lower than the days late applies.
+         */
+        private List<Tier> tiers = new ArrayList<>(asList(new Tier(0, 50), new Tier(10, 100)));
+
+        /**
+         * Simple interest charged per day late, in basis points of the total.
+         */
+        private long dailyInterestInBasisPoints = 0;
+
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Tier {
+
+        private int afterDays;
+
+        private long rateInBasisPoints;
+
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.vitornp.bankslip.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.vitornp.bankslip.model.BankSlip;
+import com.vitornp.bankslip.model.IdempotencyKey;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class CacheConfiguration {
+
+    /**
+     * An empty value records an id that does not exist, so repeated lookups of unknown ids do not reach the database.
+     * It expires sooner than a bank slip, so it takes less room and a bank slip created meanwhile is soon found.
+     */
+    @Bean
+    public Cache<UUID, Optional<BankSlip>> bankSlipCache(BankSlipProperties properties, MeterRegistry meterRegistry) {
+        long expireAfterWrite = properties.getCache().getExpireAfterWrite().toNanos();
+        long negativeExpireAfterWrite = properties.getCache().getNegativeExpireAfterWrite().toNanos();
+        Cache<UUID, Optional<BankSlip>> cache = Caffeine.newBuilder()
+            .maximumSize(properties.getCache().getMaximumSize())
+            .expireAfter(new Expiry<UUID, Optional<BankSlip>>() {
+                @Override
+                public long expireAfterCreate(UUID id, Optional<BankSlip> bankSlip, long currentTime) {
+                    return bankSlip.isPresent() ? expireAfterWrite : negativeExpireAfterWrite;
+                }
+
+                @Override
+                public long expireAfterUpdate(UUID id, Optional<BankSlip> bankSlip, long currentTime,
+                                              long currentDuration) {
+                    return expireAfterCreate(id, bankSlip, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(UUID id, Optional<BankSlip> bankSlip, long currentTime,
+                                            long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "bankSlips");
+    }
+
+    @Bean
+    public Cache<String, IdempotencyKey> idempotencyCache(BankSlipProperties properties,
+                                                         MeterRegistry meterRegistry) {
+        Cache<String, IdempotencyKey> cache = Caffeine.newBuilder()
+            .maximumSize(properties.getIdempotency().getMaximumSize())
+            .expireAfterWrite(properties.getIdempotency().getTimeToLive().toNanos(), TimeUnit.NANOSECONDS)
+            .recordStats()
+            .build();
+
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotencyKeys");
+    }
+
+}
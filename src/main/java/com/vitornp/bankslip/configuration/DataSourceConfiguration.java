@@ -0,0 +1,60 @@
+package com.vitornp.bankslip.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Two connection pools, the write one configured by spring.datasource and the read one by bank-slip.read-datasource,
+ * which may point to a replica. Read only transactions take their connection from the read pool.
+ * <p>
+ * The pools are not beans of their own, as Spring Boot would run the data source initialization for each of them
+ * while the routing data source is still being created.
+ */
+@Configuration
+public class DataSourceConfiguration {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties writeDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("bank-slip.read-datasource")
+    public DataSourceProperties readDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSourceProperties") DataSourceProperties writeProperties,
+                                 @Qualifier("readDataSourceProperties") DataSourceProperties readProperties,
+                                 Environment environment, MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        return new ReadOnlyRoutingDataSource(
+            createPool(writeProperties, binder, "spring.datasource.hikari", meterRegistry),
+            createPool(readProperties, binder, "bank-slip.read-datasource.hikari", meterRegistry)
+        );
+    }
+
+    private static HikariDataSource createPool(DataSourceProperties properties, Binder binder, String prefix,
+                                               MeterRegistry meterRegistry) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind(prefix, Bindable.ofInstance(pool));
+        pool.setMetricRegistry(meterRegistry);
+        return pool;
+    }
+
+}
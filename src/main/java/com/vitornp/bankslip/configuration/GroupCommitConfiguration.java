@@ -0,0 +1,29 @@
+package com.vitornp.bankslip.configuration;
+
+import com.vitornp.bankslip.BankSlipStatusWriter;
+import com.vitornp.bankslip.repository.BankSlipRepository;
+import com.vitornp.bankslip.repository.BankSlipStatusRepository;
+import com.vitornp.bankslip.stats.BankSlipStatsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@ConditionalOnProperty(name = "bank-slip.group-commit.enabled", havingValue = "true")
+public class GroupCommitConfiguration {
+
+    @Bean
+    public BankSlipStatusWriter bankSlipStatusWriter(BankSlipRepository repository,
+                                                     BankSlipStatusRepository statusRepository,
+                                                     BankSlipStatsService statsService,
+                                                     TransactionTemplate transactionTemplate,
+                                                     BankSlipProperties properties, MeterRegistry meterRegistry) {
+        BankSlipStatusWriter writer = new BankSlipStatusWriter(repository, statusRepository, statsService,
+            transactionTemplate, properties.getGroupCommit(), meterRegistry);
+        writer.start();
+        return writer;
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.vitornp.bankslip.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Routes the connections of read only transactions to the read pool and every other one to the write pool. The
+ * connection is only fetched on the first statement, when the transaction already knows whether it is read only.
+ */
+class ReadOnlyRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private enum Route {
+        WRITE, READ
+    }
+
+    private final HikariDataSource writeDataSource;
+    private final HikariDataSource readDataSource;
+
+    ReadOnlyRoutingDataSource(HikariDataSource writeDataSource, HikariDataSource readDataSource) {
+        this.writeDataSource = writeDataSource;
+        this.readDataSource = readDataSource;
+
+        Map<Object, Object> dataSources = new HashMap<>();
+        dataSources.put(Route.WRITE, writeDataSource);
+        dataSources.put(Route.READ, readDataSource);
+
+        AbstractRoutingDataSource routingDataSource = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.READ : Route.WRITE;
+            }
+        };
+        routingDataSource.setTargetDataSources(dataSources);
+        routingDataSource.setDefaultTargetDataSource(writeDataSource);
+        routingDataSource.afterPropertiesSet();
+
+        setTargetDataSource(routingDataSource);
+        afterPropertiesSet();
+    }
+
+    HikariDataSource getWriteDataSource() {
+        return writeDataSource;
+    }
+
+    HikariDataSource getReadDataSource() {
+        return readDataSource;
+    }
+
+    @Override
+    public void close() {
+        readDataSource.close();
+        writeDataSource.close();
+    }
+
+}
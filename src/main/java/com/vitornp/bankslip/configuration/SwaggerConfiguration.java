@@ -1,5 +1,6 @@
 package com.vitornp.bankslip.configuration;
 
+import com.vitornp.bankslip.model.Money;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -11,6 +12,8 @@ import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+import java.math.BigDecimal;
+
 @Configuration
 @EnableSwagger2
 @Import(BeanValidatorPluginsConfiguration.class)
@@ -23,6 +26,7 @@ public class SwaggerConfiguration {
             .apis(RequestHandlerSelectors.basePackage("com.vitornp.bankslip"))
             .paths(PathSelectors.any())
             .build()
+            .directModelSubstitute(Money.class, BigDecimal.class)
             .apiInfo(
                 new ApiInfoBuilder()
                     .title("Bank Slip REST API")
@@ -0,0 +1,5 @@
+package com.vitornp.bankslip.dto;
+
+public enum BankSlipBatchResult {
+    SUCCESS, INVALID, NOT_FOUND, NOT_CANCELABLE, ERROR
+}
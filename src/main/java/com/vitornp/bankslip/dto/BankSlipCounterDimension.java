@@ -0,0 +1,5 @@
+package com.vitornp.bankslip.dto;
+
+public enum BankSlipCounterDimension {
+    STATUS, CUSTOMER, DUE_MONTH
+}
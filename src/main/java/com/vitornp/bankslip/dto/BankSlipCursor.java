@@ -0,0 +1,42 @@
+package com.vitornp.bankslip.dto;
+
+import com.vitornp.bankslip.exception.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position of a bank slip listing, ordered by {@code (created_at, id)} descending.
+ */
+@Getter
+@AllArgsConstructor
+public class BankSlipCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final Instant createdAt;
+    private final UUID id;
+
+    public String encode() {
+        String value = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BankSlipCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            return new BankSlipCursor(
+                Instant.parse(value.substring(0, separator)),
+                UUID.fromString(value.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+
+}
@@ -1,9 +1,9 @@
 package com.vitornp.bankslip.dto;
 
+import com.vitornp.bankslip.model.Money;
 import lombok.Builder;
 import lombok.Getter;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.UUID;
@@ -14,9 +14,9 @@ public class BankSlipDetail {
     private UUID id;
     private LocalDate dueDate;
     private LocalDate paymentDate;
-    private BigDecimal totalInCents;
+    private Money totalInCents;
     private String customer;
     private BankSlipStatusValue status;
     private Instant createdAt;
-    private BigDecimal fine;
+    private Money fine;
 }
@@ -0,0 +1,28 @@
+package com.vitornp.bankslip.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Optional criteria of a bank slip search, a null field does not filter.
+ */
+@Builder
+@Getter
+public class BankSlipFilter {
+
+    public static final BankSlipFilter NONE = BankSlipFilter.builder().build();
+
+    private String customer;
+
+    private BankSlipStatusValue status;
+
+    private LocalDate dueFrom;
+
+    private LocalDate dueTo;
+
+    private Instant createdFrom;
+
+}
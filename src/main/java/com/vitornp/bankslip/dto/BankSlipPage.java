@@ -0,0 +1,21 @@
+package com.vitornp.bankslip.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Optional;
+
+@Getter
+@AllArgsConstructor
+public class BankSlipPage {
+
+    private final List<BankSlipDetail> bankSlips;
+
+    private final BankSlipCursor next;
+
+    public Optional<BankSlipCursor> getNext() {
+        return Optional.ofNullable(next);
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.vitornp.bankslip.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Builder
+@Getter
+public class OverdueSweep {
+    private LocalDate date;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long bankSlips;
+    private long removed;
+}
@@ -0,0 +1,14 @@
+package com.vitornp.bankslip.dto;
+
+import com.vitornp.bankslip.model.Money;
+import lombok.Builder;
+import lombok.Getter;
+
+@Builder
+@Getter
+public class OverdueTotal {
+    private String key;
+    private long bankSlips;
+    private Money totalInCents;
+    private Money fine;
+}
@@ -0,0 +1,5 @@
+package com.vitornp.bankslip.dto;
+
+public enum ReconciliationImportStatus {
+    RUNNING, COMPLETED, FAILED
+}
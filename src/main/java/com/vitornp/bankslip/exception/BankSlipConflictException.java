@@ -0,0 +1,17 @@
+package com.vitornp.bankslip.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+import static java.lang.String.format;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BankSlipConflictException extends RuntimeException {
+
+    public BankSlipConflictException(UUID id, Throwable cause) {
+        super(format("Bank slip '%s' is being changed concurrently", id), cause);
+    }
+
+}
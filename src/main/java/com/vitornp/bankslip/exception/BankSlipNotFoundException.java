@@ -10,8 +10,11 @@ import static java.lang.String.format;
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class BankSlipNotFoundException extends RuntimeException {
 
+    /**
+     * Skips the stack trace, a not found is an expected outcome and unknown ids can arrive at a high rate.
+     */
     public BankSlipNotFoundException(UUID id) {
-        super(format("Bank slip '%s' not found", id));
+        super(format("Bank slip '%s' not found", id), null, false, false);
     }
 
 }
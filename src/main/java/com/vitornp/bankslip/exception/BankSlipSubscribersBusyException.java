@@ -0,0 +1,13 @@
+package com.vitornp.bankslip.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class BankSlipSubscribersBusyException extends RuntimeException {
+
+    public BankSlipSubscribersBusyException() {
+        super("Too many bank slip change subscribers, try again later");
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.vitornp.bankslip.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    public IdempotencyKeyInProgressException() {
+        super("A request with the same idempotency key is in progress, try again later");
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.vitornp.bankslip.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBatchException extends RuntimeException {
+
+    public InvalidBatchException() {
+        super("Batch items must not be null");
+    }
+
+}
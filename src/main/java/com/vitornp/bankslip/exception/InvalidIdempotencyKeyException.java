@@ -0,0 +1,15 @@
+package com.vitornp.bankslip.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import static java.lang.String.format;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidIdempotencyKeyException extends RuntimeException {
+
+    public InvalidIdempotencyKeyException(int maxLength) {
+        super(format("Idempotency key must not be blank nor longer than %d characters", maxLength));
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.vitornp.bankslip.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class OverdueSweepRunningException extends RuntimeException {
+
+    public OverdueSweepRunningException() {
+        super("An overdue sweep is already running");
+    }
+
+}
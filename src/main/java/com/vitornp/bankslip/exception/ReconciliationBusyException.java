@@ -0,0 +1,13 @@
+package com.vitornp.bankslip.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class ReconciliationBusyException extends RuntimeException {
+
+    public ReconciliationBusyException() {
+        super("Too many reconciliations running, try again later");
+    }
+
+}
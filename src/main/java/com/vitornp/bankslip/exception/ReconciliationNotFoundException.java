@@ -0,0 +1,15 @@
+package com.vitornp.bankslip.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import static java.lang.String.format;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ReconciliationNotFoundException extends RuntimeException {
+
+    public ReconciliationNotFoundException(String name) {
+        super(format("Reconciliation '%s' not found", name));
+    }
+
+}
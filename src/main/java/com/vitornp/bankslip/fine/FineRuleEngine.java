@@ -0,0 +1,49 @@
+package com.vitornp.bankslip.fine;
+
+import com.google.common.collect.ImmutableMap;
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Compiles the configured fine rule sets once and resolves the one of each customer.
+ */
+@Component
+@Slf4j
+public class FineRuleEngine {
+
+    private final FineRuleSet defaultRuleSet;
+    private final Map<String, FineRuleSet> ruleSetsByCustomer;
+
+    @Autowired
+    public FineRuleEngine(BankSlipProperties properties) {
+        BankSlipProperties.Fine fine = properties.getFine();
+
+        ImmutableMap.Builder<String, FineRuleSet> ruleSetsByName = ImmutableMap.builder();
+        fine.getRuleSets().forEach((name, ruleSet) -> ruleSetsByName.put(name, FineRuleSet.compile(name, ruleSet)));
+        Map<String, FineRuleSet> ruleSets = ruleSetsByName.build();
+
+        this.defaultRuleSet = ruleSets.get(fine.getDefaultRuleSet());
+        checkArgument(defaultRuleSet != null, "Unknown default fine rule set %s", fine.getDefaultRuleSet());
+
+        ImmutableMap.Builder<String, FineRuleSet> ruleSetsByCustomer = ImmutableMap.builder();
+        fine.getCustomers().forEach((customer, name) -> {
+            FineRuleSet ruleSet = ruleSets.get(name);
+            checkArgument(ruleSet != null, "Unknown fine rule set %s of customer %s", name, customer);
+            ruleSetsByCustomer.put(customer, ruleSet);
+        });
+        this.ruleSetsByCustomer = ruleSetsByCustomer.build();
+
+        log.info("Compiled fine rule sets {}, default {}", ruleSets.keySet(), defaultRuleSet.getName());
+    }
+
+    public FineRuleSet getRuleSet(String customer) {
+        return customer == null ? defaultRuleSet : ruleSetsByCustomer.getOrDefault(customer, defaultRuleSet);
+    }
+
+}
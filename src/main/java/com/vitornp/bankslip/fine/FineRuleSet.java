@@ -0,0 +1,95 @@
+package com.vitornp.bankslip.fine;
+
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import com.vitornp.bankslip.model.Money;
+import lombok.Getter;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Rule set compiled into primitive arrays, evaluating a fine never allocates and the instance can be shared by any
+ * number of threads.
+ */
+public final class FineRuleSet {
+
+    @Getter
+    private final String name;
+    private final int graceDays;
+    private final long[] tierAfterDays;
+    private final long[] tierRates;
+    private final long dailyInterest;
+
+    private FineRuleSet(String name, int graceDays, long[] tierAfterDays, long[] tierRates, long dailyInterest) {
+        this.name = name;
+        this.graceDays = graceDays;
+        this.tierAfterDays = tierAfterDays;
+        this.tierRates = tierRates;
+        this.dailyInterest = dailyInterest;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the rule set has negative days or rates
+     */
+    public static FineRuleSet compile(String name, BankSlipProperties.RuleSet ruleSet) {
+        checkArgument(ruleSet.getGraceDays() >= 0, "Negative grace days on fine rule set %s", name);
+        checkArgument(ruleSet.getDailyInterestInBasisPoints() >= 0,
+            "Negative daily interest on fine rule set %s", name);
+
+        List<BankSlipProperties.Tier> tiers = ruleSet.getTiers().stream()
+            .sorted(Comparator.comparingInt(BankSlipProperties.Tier::getAfterDays))
+            .collect(Collectors.toList());
+        long[] tierAfterDays = new long[tiers.size()];
+        long[] tierRates = new long[tiers.size()];
+        for (int i = 0; i < tiers.size(); i++) {
+            BankSlipProperties.Tier tier = tiers.get(i);
+            checkArgument(tier.getAfterDays() >= 0 && tier.getRateInBasisPoints() >= 0,
+                "Negative tier on fine rule set %s", name);
+            tierAfterDays[i] = tier.getAfterDays();
+            tierRates[i] = tier.getRateInBasisPoints();
+        }
+
+        return new FineRuleSet(name, ruleSet.getGraceDays(), tierAfterDays, tierRates,
+            ruleSet.getDailyInterestInBasisPoints());
+    }
+
+    /**
+     * Fine, penalty plus interest, in hundredths of a bank slip of the given total paid the given days late.
+     */
+    public long fineInHundredths(long totalInHundredths, long daysLate) {
+        if (daysLate <= 0 || daysLate <= graceDays) {
+            return 0;
+        }
+
+        long rate = 0;
+        for (int i = tierAfterDays.length - 1; i >= 0; i--) {
+            if (daysLate > tierAfterDays[i]) {
+                rate = tierRates[i];
+                break;
+            }
+        }
+
+        long penalty = Money.multiplyBasisPoints(totalInHundredths, rate);
+        if (dailyInterest == 0) {
+            return penalty;
+        }
+
+        return penalty + Money.multiplyBasisPoints(totalInHundredths, Math.multiplyExact(dailyInterest, daysLate));
+    }
+
+    /**
+     * Evaluates a page of bank slips at once, each one by its own rule set, over parallel arrays.
+     */
+    public static long[] fineInHundredths(FineRuleSet[] ruleSets, long[] totalsInHundredths, long[] daysLate) {
+        long[] fines = new long[ruleSets.length];
+        for (int i = 0; i < fines.length; i++) {
+            fines[i] = ruleSets[i].fineInHundredths(totalsInHundredths[i], daysLate[i]);
+        }
+
+        return fines;
+    }
+
+}
@@ -0,0 +1,224 @@
+package com.vitornp.bankslip.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.google.common.hash.Hashing;
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import com.vitornp.bankslip.exception.IdempotencyKeyInProgressException;
+import com.vitornp.bankslip.exception.IdempotencyKeyReusedException;
+import com.vitornp.bankslip.exception.InvalidIdempotencyKeyException;
+import com.vitornp.bankslip.model.IdempotencyKey;
+import com.vitornp.bankslip.repository.IdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs an operation at most once per idempotency key, replaying the response of the first run to the retries of the
+ * same request. The responses are kept in a bounded in-memory cache backed by the idempotency_key table, both
+ * expiring after the configured time to live.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepository repository;
+    private final Cache<String, IdempotencyKey> cache;
+    private final ObjectMapper objectMapper;
+    private final BankSlipProperties.Idempotency properties;
+
+    /**
+     * Runs in progress by operation and key, retries arriving meanwhile wait for the response of the first one. A run
+     * caches its response before leaving this map, so a retry that gets in after it finds the response cached.
+     */
+    private final ConcurrentMap<String, CompletableFuture<IdempotencyKey>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotencyService(IdempotencyKeyRepository repository, Cache<String, IdempotencyKey> idempotencyCache,
+                              ObjectMapper objectMapper, BankSlipProperties properties) {
+        this.repository = repository;
+        this.cache = idempotencyCache;
+        this.objectMapper = objectMapper;
+        this.properties = properties.getIdempotency();
+    }
+
+    /**
+     * Runs the action, or returns the response it gave for the same operation, key and request. A failed action
+     * stores nothing, so it runs again on retry. Without a key the action always runs.
+     *
+     * @throws IdempotencyKeyReusedException if the key was used for the operation with a different request
+     * @throws IdempotencyKeyInProgressException if the key is being run by another instance, until its lock expires
+     */
+    public <T> T execute(String operation, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.trim().isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(MAX_KEY_LENGTH);
+        }
+
+        String cacheKey = operation + ' ' + key;
+        String requestHash = hash(request);
+        IdempotencyKey cached = cache.getIfPresent(cacheKey);
+        if (cached != null) {
+            return replay(cached, requestHash, responseType);
+        }
+
+        CompletableFuture<IdempotencyKey> future = new CompletableFuture<>();
+        CompletableFuture<IdempotencyKey> running = inFlight.putIfAbsent(cacheKey, future);
+        if (running != null) {
+            return replay(join(running), requestHash, responseType);
+        }
+
+        try {
+            IdempotencyKey stored = Optional.ofNullable(cache.getIfPresent(cacheKey))
+                .orElseGet(() -> run(operation, key, requestHash, action));
+            if (stored.getResponse() != null) {
+                cache.put(cacheKey, stored);
+            }
+            future.complete(stored);
+            return replay(stored, requestHash, responseType);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, future);
+        }
+    }
+
+    @Scheduled(cron = "${bank-slip.idempotency.cleanup-cron}")
+    public void deleteExpired() {
+        int deleted = repository.deleteAllCreatedBefore(expiredAt());
+        log.info("Deleted {} expired idempotency keys", deleted);
+    }
+
+    /**
+     * Records the key before running the action, so when another instance runs the same key concurrently only one
+     * of them records it and runs. The key is written in a statement of its own, the action runs in the transactions
+     * of the service as it would without a key, and its response is stored once it succeeds. The key stays locked
+     * while the action runs: a run interrupted before storing its response is taken over by a retry of the same
+     * request once the lock expires, so the action may run again.
+     */
+    private <T> IdempotencyKey run(String operation, String key, String requestHash, Supplier<T> action) {
+        IdempotencyKey idempotencyKey = IdempotencyKey.builder()
+            .operation(operation)
+            .key(key)
+            .requestHash(requestHash)
+            .lockedUntil(Instant.now().plus(properties.getLockTimeout()).truncatedTo(ChronoUnit.MILLIS))
+            .build();
+        Optional<IdempotencyKey> stored = save(idempotencyKey);
+        if (stored.isPresent() && !takeOver(stored.get(), idempotencyKey)) {
+            return stored.get();
+        }
+
+        String response;
+        try {
+            response = write(action.get());
+        } catch (RuntimeException e) {
+            repository.delete(idempotencyKey);
+            throw e;
+        }
+        if (!repository.updateResponse(idempotencyKey, response)) {
+            log.warn("Idempotency key '{}' of '{}' was taken over before its response was stored", key, operation);
+        }
+        return idempotencyKey.toBuilder().response(response).lockedUntil(null).build();
+    }
+
+    /**
+     * Locks the key stored for this run when it is in progress for the same request and its lock expired.
+     */
+    private boolean takeOver(IdempotencyKey stored, IdempotencyKey idempotencyKey) {
+        return stored.getResponse() == null
+            && stored.getRequestHash().equals(idempotencyKey.getRequestHash())
+            && stored.getLockedUntil().isBefore(Instant.now())
+            && repository.lock(stored, idempotencyKey.getLockedUntil());
+    }
+
+    /**
+     * @return the key already stored, or empty if this run stored it
+     */
+    private Optional<IdempotencyKey> save(IdempotencyKey idempotencyKey) {
+        try {
+            repository.save(idempotencyKey);
+            return Optional.empty();
+        } catch (DuplicateKeyException e) {
+            Optional<IdempotencyKey> stored = find(idempotencyKey);
+            if (stored.isPresent()) {
+                return stored;
+            }
+        }
+
+        // The key stored has expired but was not deleted yet
+        repository.deleteAllCreatedBefore(expiredAt());
+        try {
+            repository.save(idempotencyKey);
+            return Optional.empty();
+        } catch (DuplicateKeyException e) {
+            return Optional.of(find(idempotencyKey).orElseThrow(() -> e));
+        }
+    }
+
+    private Optional<IdempotencyKey> find(IdempotencyKey idempotencyKey) {
+        return repository.find(idempotencyKey.getOperation(), idempotencyKey.getKey(), expiredAt());
+    }
+
+    private Instant expiredAt() {
+        return Instant.now().minus(properties.getTimeToLive());
+    }
+
+    private <T> T replay(IdempotencyKey stored, String requestHash, Class<T> responseType) {
+        if (!stored.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException();
+        }
+        if (stored.getResponse() == null) {
+            throw new IdempotencyKeyInProgressException();
+        }
+
+        return read(stored.getResponse(), responseType);
+    }
+
+    String hash(Object request) {
+        return Hashing.sha256().hashString(write(request), StandardCharsets.UTF_8).toString();
+    }
+
+    private static IdempotencyKey join(CompletableFuture<IdempotencyKey> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T read(String response, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(response, responseType);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -1,49 +1,41 @@
 package com.vitornp.bankslip.model;
 
+import com.vitornp.bankslip.dto.BankSlipStatusValue;
 import lombok.Builder;
 import lombok.Builder.Default;
 import lombok.Getter;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
-import static com.vitornp.bankslip.dto.BankSlipStatusValue.PAID;
-
 @Builder(toBuilder = true)
 @Getter
 public class BankSlip {
 
     @Default
-    private UUID id = UUID.randomUUID();
+    private UUID id = Uuids.timeOrdered();
 
     private LocalDate dueDate;
 
-    private BigDecimal totalInCents;
+    private Money totalInCents;
 
     private String customer;
 
     @Default
-    private List<BankSlipStatus> statuses = new ArrayList<>();
+    private BankSlipStatusValue status = BankSlipStatusValue.PENDING;
+
+    @Default
+    private LocalDate statusDate = LocalDate.now();
+
+    private LocalDate paymentDate;
 
     @Default
     private Instant createdAt = Instant.now();
 
-    public BankSlipStatus getLastStatus() {
-        return statuses.stream()
-            .max(Comparator.comparing(BankSlipStatus::getCreatedAt))
-            .orElse(BankSlipStatus.builder().bankSlipId(id).build());
-    }
-
-    public Optional<BankSlipStatus> getPaidStatus() {
-        return statuses.stream()
-            .filter(p -> PAID == p.getStatus())
-            .findFirst();
-    }
+    /**
+     * Incremented on every change, a change is written only over the version it was made from.
+     */
+    private long version;
 
 }
@@ -0,0 +1,26 @@
+package com.vitornp.bankslip.model;
+
+import com.vitornp.bankslip.dto.BankSlipCounterDimension;
+import com.vitornp.bankslip.dto.BankSlipStatusValue;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Number and total of the bank slips with a status for one key of a dimension, also used as the delta applied to
+ * that counter.
+ */
+@Builder(toBuilder = true)
+@Getter
+public class BankSlipCounter {
+
+    private BankSlipCounterDimension dimension;
+
+    private String key;
+
+    private BankSlipStatusValue status;
+
+    private long bankSlips;
+
+    private Money totalInCents;
+
+}
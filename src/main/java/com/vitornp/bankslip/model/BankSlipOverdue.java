@@ -0,0 +1,31 @@
+package com.vitornp.bankslip.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Pending bank slip past its due date as seen by the last overdue sweep, with the fine it had on that day.
+ */
+@Builder
+@Getter
+public class BankSlipOverdue {
+
+    private UUID bankSlipId;
+
+    private String customer;
+
+    private LocalDate dueDate;
+
+    private Money totalInCents;
+
+    private int daysOverdue;
+
+    private Money fine;
+
+    private Instant sweptAt;
+
+}
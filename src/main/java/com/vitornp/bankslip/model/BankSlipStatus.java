@@ -14,7 +14,7 @@ import java.util.UUID;
 public class BankSlipStatus {
 
     @Default
-    private UUID id = UUID.randomUUID();
+    private UUID id = Uuids.timeOrdered();
 
     private UUID bankSlipId;
 
@@ -27,4 +27,20 @@ public class BankSlipStatus {
     @Default
     private Instant createdAt = Instant.now();
 
+    /**
+     * Position in the order the status changes were committed, assigned as the transaction that saved it commits.
+     */
+    private Long sequence;
+
+    /**
+     * History entry of the current status of the bank slip.
+     */
+    public static BankSlipStatus of(BankSlip bankSlip) {
+        return builder()
+            .bankSlipId(bankSlip.getId())
+            .date(bankSlip.getStatusDate())
+            .status(bankSlip.getStatus())
+            .build();
+    }
+
 }
@@ -0,0 +1,38 @@
+package com.vitornp.bankslip.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Request run with an idempotency key, with the response to replay to its retries once the run succeeded.
+ */
+@Builder(toBuilder = true)
+@Getter
+public class IdempotencyKey {
+
+    private String operation;
+
+    private String key;
+
+    /**
+     * SHA-256 of the request, a retry must send the same request.
+     */
+    private String requestHash;
+
+    /**
+     * Null while the request runs.
+     */
+    private String response;
+
+    /**
+     * Until when the run in progress holds the key, a retry may run the request again after it. Null once the
+     * response is stored.
+     */
+    private Instant lockedUntil;
+
+    @Builder.Default
+    private Instant createdAt = Instant.now();
+
+}
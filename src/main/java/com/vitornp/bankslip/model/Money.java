@@ -0,0 +1,128 @@
+package com.vitornp.bankslip.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+import lombok.EqualsAndHashCode;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable fixed-point amount with two decimal places, kept as a {@code long} count of hundredths so arithmetic on
+ * the request path does not allocate {@link BigDecimal}s.
+ */
+@EqualsAndHashCode
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private static final long BASIS_POINTS = 10_000;
+
+    private final long hundredths;
+
+    private Money(long hundredths) {
+        this.hundredths = hundredths;
+    }
+
+    public static Money ofHundredths(long hundredths) {
+        return hundredths == 0 ? ZERO : new Money(hundredths);
+    }
+
+    /**
+     * @throws ArithmeticException if the value has more than two decimal places or does not fit in a long
+     */
+    public static Money of(BigDecimal value) {
+        return ofHundredths(value.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+
+    public long getHundredths() {
+        return hundredths;
+    }
+
+    public Money plus(Money other) {
+        return ofHundredths(Math.addExact(hundredths, other.hundredths));
+    }
+
+    public Money negate() {
+        return ofHundredths(Math.negateExact(hundredths));
+    }
+
+    /**
+     * Applies a rate expressed in basis points (1/10000) rounding half up, so 50 basis points of 1490.13 is 7.45.
+     */
+    public Money multiplyBasisPoints(long basisPoints) {
+        return ofHundredths(multiplyBasisPoints(hundredths, basisPoints));
+    }
+
+    /**
+     * Allocation free form of {@link #multiplyBasisPoints(long)} over a raw amount in hundredths.
+     */
+    public static long multiplyBasisPoints(long hundredths, long basisPoints) {
+        long product = Math.multiplyExact(hundredths, basisPoints);
+        long quotient = product / BASIS_POINTS;
+        long remainder = product % BASIS_POINTS;
+        if (Math.abs(remainder) * 2 >= BASIS_POINTS) {
+            quotient += Long.signum(product);
+        }
+
+        return quotient;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(hundredths, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(hundredths, other.hundredths);
+    }
+
+    @Override
+    public String toString() {
+        long absolute = Math.abs(hundredths);
+        long fraction = absolute % 100;
+        return (hundredths < 0 ? "-" : "") + absolute / 100 + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    static class Serializer extends StdScalarSerializer<Money> {
+
+        Serializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.toString());
+        }
+
+    }
+
+    static class Deserializer extends StdScalarDeserializer<Money> {
+
+        Deserializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            BigDecimal value = p.getDecimalValue();
+            try {
+                return of(value);
+            } catch (ArithmeticException e) {
+                throw ctxt.weirdNumberException(value, Money.class, e.getMessage());
+            }
+        }
+
+    }
+
+}
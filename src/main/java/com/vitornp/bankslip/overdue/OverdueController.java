@@ -0,0 +1,83 @@
+package com.vitornp.bankslip.overdue;
+
+import com.vitornp.bankslip.dto.OverdueSweep;
+import com.vitornp.bankslip.representation.OverdueSweepResponse;
+import com.vitornp.bankslip.representation.OverdueTotalResponse;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+@RestController
+@RequestMapping(path = "overdue", produces = APPLICATION_JSON_VALUE)
+public class OverdueController {
+
+    private final OverdueService service;
+
+    @Autowired
+    public OverdueController(OverdueService service) {
+        this.service = service;
+    }
+
+    @ApiOperation(value = "Run the overdue sweep now instead of waiting for the scheduled one")
+    @PostMapping("/sweeps")
+    public Callable<OverdueSweepResponse> sweep() {
+        return () -> toResponse(service.sweep());
+    }
+
+    @ApiOperation(value = "Find the last overdue sweep run by this instance")
+    @GetMapping("/sweeps/last")
+    public ResponseEntity<OverdueSweepResponse> findLastSweep() {
+        return service.findLastSweep()
+            .map(sweep -> ResponseEntity.ok(toResponse(sweep)))
+            .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    @ApiOperation(value = "Total overdue and fines by customer as of the last overdue sweep")
+    @GetMapping("/customers")
+    public List<OverdueTotalResponse> findTotalsByCustomer() {
+        return service.findTotalsByCustomer()
+            .stream()
+            .map(total -> OverdueTotalResponse.builder()
+                .customer(total.getKey())
+                .bankSlips(total.getBankSlips())
+                .totalInCents(total.getTotalInCents())
+                .fine(total.getFine())
+                .build())
+            .collect(Collectors.toList());
+    }
+
+    @ApiOperation(value = "Total overdue and fines by days overdue as of the last overdue sweep")
+    @GetMapping("/days-overdue")
+    public List<OverdueTotalResponse> findTotalsByDaysOverdue() {
+        return service.findTotalsByDaysOverdue()
+            .stream()
+            .map(total -> OverdueTotalResponse.builder()
+                .daysOverdue(total.getKey())
+                .bankSlips(total.getBankSlips())
+                .totalInCents(total.getTotalInCents())
+                .fine(total.getFine())
+                .build())
+            .collect(Collectors.toList());
+    }
+
+    private OverdueSweepResponse toResponse(OverdueSweep sweep) {
+        return OverdueSweepResponse.builder()
+            .date(sweep.getDate())
+            .startedAt(sweep.getStartedAt())
+            .finishedAt(sweep.getFinishedAt())
+            .bankSlips(sweep.getBankSlips())
+            .removed(sweep.getRemoved())
+            .build();
+    }
+
+}
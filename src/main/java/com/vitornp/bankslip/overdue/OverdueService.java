@@ -0,0 +1,150 @@
+package com.vitornp.bankslip.overdue;
+
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import com.vitornp.bankslip.dto.OverdueSweep;
+import com.vitornp.bankslip.dto.OverdueTotal;
+import com.vitornp.bankslip.exception.OverdueSweepRunningException;
+import com.vitornp.bankslip.fine.FineRuleEngine;
+import com.vitornp.bankslip.fine.FineRuleSet;
+import com.vitornp.bankslip.model.BankSlip;
+import com.vitornp.bankslip.model.BankSlipOverdue;
+import com.vitornp.bankslip.model.Money;
+import com.vitornp.bankslip.repository.BankSlipOverdueRepository;
+import com.vitornp.bankslip.repository.BankSlipRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Precomputes the fine of every overdue pending bank slip into bank_slip_overdue, so reports are answered by
+ * aggregating that table instead of evaluating each bank slip.
+ */
+@Service
+@Slf4j
+public class OverdueService {
+
+    private final BankSlipRepository bankSlipRepository;
+    private final BankSlipOverdueRepository overdueRepository;
+    private final FineRuleEngine fineRuleEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final BankSlipProperties.Overdue properties;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile OverdueSweep lastSweep;
+
+    @Autowired
+    public OverdueService(BankSlipRepository bankSlipRepository, BankSlipOverdueRepository overdueRepository,
+                          FineRuleEngine fineRuleEngine, TransactionTemplate transactionTemplate,
+                          BankSlipProperties properties) {
+        this.bankSlipRepository = bankSlipRepository;
+        this.overdueRepository = overdueRepository;
+        this.fineRuleEngine = fineRuleEngine;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties.getOverdue();
+    }
+
+    @Scheduled(cron = "${bank-slip.overdue.cron}")
+    public void scheduledSweep() {
+        try {
+            sweep();
+        } catch (OverdueSweepRunningException e) {
+            log.warn("Skipping scheduled overdue sweep, {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Scans the pending bank slips due before today in id order, one chunk per transaction, then removes the rows
+     * of the bank slips that were paid, canceled or deleted since the previous sweep.
+     */
+    @Timed("bank_slip.service")
+    public OverdueSweep sweep() {
+        if (!running.compareAndSet(false, true)) {
+            throw new OverdueSweepRunningException();
+        }
+
+        try {
+            LocalDate today = LocalDate.now();
+            Instant startedAt = Instant.now();
+            long bankSlips = 0;
+            UUID after = null;
+            List<BankSlip> chunk;
+            do {
+                chunk = bankSlipRepository.findAllPendingDueBefore(today, after, properties.getChunkSize());
+                List<BankSlipOverdue> overdues = toOverdues(chunk, today, startedAt);
+                transactionTemplate.execute(status -> {
+                    overdueRepository.saveAll(overdues);
+                    return null;
+                });
+                bankSlips += chunk.size();
+                after = chunk.isEmpty() ? after : chunk.get(chunk.size() - 1).getId();
+            } while (chunk.size() == properties.getChunkSize());
+            long removed = overdueRepository.deleteAllSweptBefore(startedAt);
+
+            OverdueSweep sweep = OverdueSweep.builder()
+                .date(today)
+                .startedAt(startedAt)
+                .finishedAt(Instant.now())
+                .bankSlips(bankSlips)
+                .removed(removed)
+                .build();
+            log.info("Overdue sweep of {} found {} bank slips and removed {}", today, bankSlips, removed);
+            lastSweep = sweep;
+            return sweep;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public Optional<OverdueSweep> findLastSweep() {
+        return Optional.ofNullable(lastSweep);
+    }
+
+    @Timed("bank_slip.service")
+    public List<OverdueTotal> findTotalsByCustomer() {
+        return overdueRepository.findTotalsByCustomer();
+    }
+
+    @Timed("bank_slip.service")
+    public List<OverdueTotal> findTotalsByDaysOverdue() {
+        return overdueRepository.findTotalsByDaysOverdue();
+    }
+
+    private List<BankSlipOverdue> toOverdues(List<BankSlip> bankSlips, LocalDate today, Instant sweptAt) {
+        FineRuleSet[] ruleSets = new FineRuleSet[bankSlips.size()];
+        long[] totals = new long[bankSlips.size()];
+        long[] daysOverdue = new long[bankSlips.size()];
+        for (int i = 0; i < ruleSets.length; i++) {
+            BankSlip bankSlip = bankSlips.get(i);
+            ruleSets[i] = fineRuleEngine.getRuleSet(bankSlip.getCustomer());
+            totals[i] = bankSlip.getTotalInCents().getHundredths();
+            daysOverdue[i] = today.toEpochDay() - bankSlip.getDueDate().toEpochDay();
+        }
+        long[] fines = FineRuleSet.fineInHundredths(ruleSets, totals, daysOverdue);
+
+        List<BankSlipOverdue> overdues = new ArrayList<>(bankSlips.size());
+        for (int i = 0; i < ruleSets.length; i++) {
+            BankSlip bankSlip = bankSlips.get(i);
+            overdues.add(BankSlipOverdue.builder()
+                .bankSlipId(bankSlip.getId())
+                .customer(bankSlip.getCustomer())
+                .dueDate(bankSlip.getDueDate())
+                .totalInCents(bankSlip.getTotalInCents())
+                .daysOverdue(Math.toIntExact(daysOverdue[i]))
+                .fine(Money.ofHundredths(fines[i]))
+                .sweptAt(sweptAt)
+                .build());
+        }
+        return overdues;
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.vitornp.bankslip.reconciliation;
+
+import com.vitornp.bankslip.exception.ReconciliationNotFoundException;
+import com.vitornp.bankslip.representation.ReconciliationImportResponse;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE;
+
+@RestController
+@RequestMapping(path = "reconciliations", produces = APPLICATION_JSON_VALUE)
+public class ReconciliationController {
+
+    private final ReconciliationService service;
+
+    @Autowired
+    public ReconciliationController(ReconciliationService service) {
+        this.service = service;
+    }
+
+    @ApiOperation(value = "Import an uploaded reconciliation file")
+    @PostMapping(consumes = MULTIPART_FORM_DATA_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ReconciliationImportResponse importUpload(@RequestParam("file") MultipartFile file) {
+        return toResponse(service.importUpload(file));
+    }
+
+    @ApiOperation(value = "Import a reconciliation file from the reconciliation directory")
+    @PostMapping(params = "file_name")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ReconciliationImportResponse importFile(@RequestParam("file_name") String fileName) {
+        return toResponse(service.importFile(fileName));
+    }
+
+    @ApiOperation(value = "Find the latest reconciliation imports")
+    @GetMapping
+    public List<ReconciliationImportResponse> findAll() {
+        return service.findAll()
+            .stream()
+            .map(this::toResponse)
+            .collect(Collectors.toList());
+    }
+
+    @ApiOperation(value = "Find by id the progress of a reconciliation import")
+    @GetMapping("/{id}")
+    public ReconciliationImportResponse findById(@PathVariable UUID id) {
+        return service.findById(id)
+            .map(this::toResponse)
+            .orElseThrow(() -> new ReconciliationNotFoundException(id.toString()));
+    }
+
+    private ReconciliationImportResponse toResponse(ReconciliationImport reconciliationImport) {
+        return ReconciliationImportResponse.builder()
+            .id(reconciliationImport.getId())
+            .fileName(reconciliationImport.getFileName())
+            .status(reconciliationImport.getStatus())
+            .failure(reconciliationImport.getFailure())
+            .startedAt(reconciliationImport.getStartedAt())
+            .finishedAt(reconciliationImport.getFinishedAt())
+            .size(reconciliationImport.getSize())
+            .bytesRead(reconciliationImport.getBytesRead())
+            .linesRead(reconciliationImport.getLinesRead().get())
+            .linesSucceeded(reconciliationImport.getLinesSucceeded().get())
+            .linesFailed(reconciliationImport.getLinesFailed().get())
+            .linesPerSecond(reconciliationImport.getLinesPerSecond())
+            .errors(reconciliationImport.getErrors()
+                .stream()
+                .map(error -> new ReconciliationImportResponse.Error(error.getLine(), error.getMessage()))
+                .collect(Collectors.toList()))
+            .build();
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.vitornp.bankslip.reconciliation;
+
+import com.vitornp.bankslip.dto.BankSlipStatusValue;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+class ReconciliationEntry {
+
+    private final long lineNumber;
+
+    private final UUID bankSlipId;
+
+    private final BankSlipStatusValue status;
+
+    private final LocalDate date;
+
+}
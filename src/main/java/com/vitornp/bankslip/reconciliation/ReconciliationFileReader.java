@@ -0,0 +1,94 @@
+package com.vitornp.bankslip.reconciliation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static java.lang.String.format;
+
+/**
+ * Reads a reconciliation file line by line through a {@link FileChannel} and a fixed size direct buffer, so the
+ * memory used does not depend on the file size. A line longer than {@value #MAX_LINE_LENGTH} bytes fails the file.
+ */
+class ReconciliationFileReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_LINE_LENGTH = 4 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    private byte[] line = new byte[128];
+    private int lineLength;
+    private long lineNumber;
+
+    ReconciliationFileReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.buffer.flip();
+    }
+
+    /**
+     * @return the next line without its line terminator, or {@code null} at the end of the file
+     * @throws IOException if the line is longer than {@value #MAX_LINE_LENGTH} bytes
+     */
+    String readLine() throws IOException {
+        lineLength = 0;
+        while (true) {
+            if (!buffer.hasRemaining() && !fill()) {
+                return lineLength == 0 ? null : nextLine();
+            }
+
+            byte current = buffer.get();
+            if (current == '\n') {
+                return nextLine();
+            }
+            append(current);
+        }
+    }
+
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    long getBytesRead() throws IOException {
+        return channel.position() - buffer.remaining();
+    }
+
+    long getSize() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int read = channel.read(buffer);
+        buffer.flip();
+        return read > 0;
+    }
+
+    private void append(byte current) throws IOException {
+        if (lineLength == MAX_LINE_LENGTH) {
+            throw new IOException(format("Line %d is longer than %d bytes", lineNumber + 1, MAX_LINE_LENGTH));
+        }
+        if (lineLength == line.length) {
+            line = Arrays.copyOf(line, line.length * 2);
+        }
+        line[lineLength++] = current;
+    }
+
+    private String nextLine() {
+        lineNumber++;
+        int length = lineLength > 0 && line[lineLength - 1] == '\r' ? lineLength - 1 : lineLength;
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+}
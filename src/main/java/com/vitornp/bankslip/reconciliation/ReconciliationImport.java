@@ -0,0 +1,111 @@
+package com.vitornp.bankslip.reconciliation;
+
+import com.vitornp.bankslip.dto.ReconciliationImportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.vitornp.bankslip.dto.ReconciliationImportStatus.COMPLETED;
+import static com.vitornp.bankslip.dto.ReconciliationImportStatus.FAILED;
+import static com.vitornp.bankslip.dto.ReconciliationImportStatus.RUNNING;
+
+/**
+ * Progress of a reconciliation file import, updated concurrently by the pipeline stages.
+ */
+@Getter
+class ReconciliationImport {
+
+    private static final int MAX_ERRORS = 1000;
+
+    private final UUID id = UUID.randomUUID();
+
+    private final String fileName;
+
+    private final Instant startedAt = Instant.now();
+
+    private volatile Instant finishedAt;
+
+    private volatile ReconciliationImportStatus status = RUNNING;
+
+    private volatile String failure;
+
+    private volatile long size;
+
+    private volatile long bytesRead;
+
+    private final AtomicLong linesRead = new AtomicLong();
+
+    private final AtomicLong linesSucceeded = new AtomicLong();
+
+    private final AtomicLong linesFailed = new AtomicLong();
+
+    private final List<Error> errors = new ArrayList<>();
+
+    ReconciliationImport(String fileName) {
+        this.fileName = fileName;
+    }
+
+    boolean isRunning() {
+        return RUNNING == status;
+    }
+
+    void read(long lines, long bytesRead, long size) {
+        this.linesRead.set(lines);
+        this.bytesRead = bytesRead;
+        this.size = size;
+    }
+
+    void succeeded(long lines) {
+        linesSucceeded.addAndGet(lines);
+    }
+
+    void failed(long line, String message) {
+        linesFailed.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(new Error(line, message));
+            }
+        }
+    }
+
+    List<Error> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    long getLinesPerSecond() {
+        Instant end = finishedAt == null ? Instant.now() : finishedAt;
+        long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return linesRead.get() * 1000 / millis;
+    }
+
+    synchronized void fail(String failure) {
+        if (isRunning()) {
+            this.failure = failure;
+            this.status = FAILED;
+            this.finishedAt = Instant.now();
+        }
+    }
+
+    synchronized void complete() {
+        if (isRunning()) {
+            this.status = COMPLETED;
+            this.finishedAt = Instant.now();
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class Error {
+        private final long line;
+        private final String message;
+    }
+
+}
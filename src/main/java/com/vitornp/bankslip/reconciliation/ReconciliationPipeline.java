@@ -0,0 +1,254 @@
+package com.vitornp.bankslip.reconciliation;
+
+import com.vitornp.bankslip.BankSlipService;
+import com.vitornp.bankslip.dto.BankSlipBatchResult;
+import com.vitornp.bankslip.dto.BankSlipStatusValue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.TransactionException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.vitornp.bankslip.dto.BankSlipBatchResult.SUCCESS;
+import static com.vitornp.bankslip.dto.BankSlipStatusValue.CANCELED;
+import static com.vitornp.bankslip.dto.BankSlipStatusValue.PAID;
+
+/**
+ * Imports a reconciliation file through three stages running on their own threads: reading lines, parsing and
+ * validating them, and writing payments and cancellations. The stages are connected by bounded queues of fixed size
+ * batches, so the memory used is constant whatever the file size.
+ *
+ * <p>Each line has the format {@code bank_slip_id,status,date}, where status is {@code PAID} or {@code CANCELED} and
+ * date is the payment date, required for {@code PAID}. Blank lines and lines starting with {@code #} are ignored.
+ */
+@Slf4j
+class ReconciliationPipeline {
+
+    private static final int STAGES = 3;
+    private static final long QUEUE_TIMEOUT_MILLIS = 100;
+
+    private static final LineBatch END_OF_LINES = new LineBatch(0, new ArrayList<>(0));
+    private static final List<ReconciliationEntry> END_OF_ENTRIES = new ArrayList<>(0);
+
+    private final ReconciliationImport reconciliationImport;
+    private final Path path;
+    private final BankSlipService bankSlipService;
+    private final int batchSize;
+    private final BlockingQueue<LineBatch> lines;
+    private final BlockingQueue<List<ReconciliationEntry>> entries;
+    private final AtomicInteger runningStages = new AtomicInteger(STAGES);
+    private final Runnable onFinish;
+
+    ReconciliationPipeline(ReconciliationImport reconciliationImport, Path path, BankSlipService bankSlipService,
+                           int batchSize, int queueCapacity, Runnable onFinish) {
+        this.reconciliationImport = reconciliationImport;
+        this.path = path;
+        this.bankSlipService = bankSlipService;
+        this.batchSize = batchSize;
+        this.lines = new ArrayBlockingQueue<>(queueCapacity);
+        this.entries = new ArrayBlockingQueue<>(queueCapacity);
+        this.onFinish = onFinish;
+    }
+
+    void start(Executor executor) {
+        executor.execute(() -> runStage(this::read));
+        executor.execute(() -> runStage(this::parse));
+        executor.execute(() -> runStage(this::write));
+    }
+
+    private void runStage(Stage stage) {
+        try {
+            stage.run();
+        } catch (CancellationException e) {
+            log.debug("Reconciliation '{}' stage stopped", reconciliationImport.getId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reconciliationImport.fail("Interrupted");
+        } catch (Exception e) {
+            log.error("Error when import reconciliation '{}'", reconciliationImport.getId(), e);
+            reconciliationImport.fail(e.getMessage());
+        } finally {
+            if (runningStages.decrementAndGet() == 0) {
+                reconciliationImport.complete();
+                onFinish.run();
+            }
+        }
+    }
+
+    private void read() throws IOException, InterruptedException {
+        try (ReconciliationFileReader reader = new ReconciliationFileReader(path)) {
+            List<String> batch = new ArrayList<>(batchSize);
+            long firstLineNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                batch.add(line);
+                if (batch.size() == batchSize) {
+                    put(lines, new LineBatch(firstLineNumber, batch));
+                    reconciliationImport.read(reader.getLineNumber(), reader.getBytesRead(), reader.getSize());
+                    firstLineNumber = reader.getLineNumber() + 1;
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                put(lines, new LineBatch(firstLineNumber, batch));
+            }
+            reconciliationImport.read(reader.getLineNumber(), reader.getBytesRead(), reader.getSize());
+        }
+        put(lines, END_OF_LINES);
+    }
+
+    private void parse() throws InterruptedException {
+        List<ReconciliationEntry> batch = new ArrayList<>(batchSize);
+        Set<UUID> bankSlipIds = new HashSet<>();
+        LineBatch lineBatch;
+        while ((lineBatch = take(lines)) != END_OF_LINES) {
+            long lineNumber = lineBatch.firstLineNumber;
+            for (String line : lineBatch.lines) {
+                ReconciliationEntry entry = parse(lineNumber++, line);
+                if (entry == null) {
+                    continue;
+                }
+
+                // A bank slip repeated in a batch is written in the next one, keeping the order of the file
+                if (batch.size() == batchSize || !bankSlipIds.add(entry.getBankSlipId())) {
+                    put(entries, batch);
+                    batch = new ArrayList<>(batchSize);
+                    bankSlipIds.clear();
+                    bankSlipIds.add(entry.getBankSlipId());
+                }
+                batch.add(entry);
+            }
+        }
+        if (!batch.isEmpty()) {
+            put(entries, batch);
+        }
+        put(entries, END_OF_ENTRIES);
+    }
+
+    private ReconciliationEntry parse(long lineNumber, String line) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return null;
+        }
+
+        try {
+            String[] fields = trimmed.split(",", -1);
+            if (fields.length != 3) {
+                throw new IllegalArgumentException("Expected 3 fields but found " + fields.length);
+            }
+
+            UUID bankSlipId = UUID.fromString(fields[0].trim());
+            BankSlipStatusValue status = BankSlipStatusValue.valueOf(fields[1].trim());
+            LocalDate date = fields[2].trim().isEmpty() ? null : LocalDate.parse(fields[2].trim());
+            if (PAID != status && CANCELED != status) {
+                throw new IllegalArgumentException("Status must be PAID or CANCELED");
+            }
+            if (PAID == status && date == null) {
+                throw new IllegalArgumentException("Date is required when status is PAID");
+            }
+
+            return new ReconciliationEntry(lineNumber, bankSlipId, status, date);
+        } catch (RuntimeException e) {
+            reconciliationImport.failed(lineNumber, e.getMessage());
+            return null;
+        }
+    }
+
+    private void write() throws InterruptedException {
+        List<ReconciliationEntry> batch;
+        while ((batch = take(entries)) != END_OF_ENTRIES) {
+            write(batch);
+        }
+    }
+
+    private void write(List<ReconciliationEntry> batch) {
+        Map<UUID, LocalDate> payments = new LinkedHashMap<>();
+        List<UUID> cancellations = new ArrayList<>();
+        Map<UUID, Long> lineNumbers = new HashMap<>();
+        for (ReconciliationEntry entry : batch) {
+            lineNumbers.put(entry.getBankSlipId(), entry.getLineNumber());
+            if (PAID == entry.getStatus()) {
+                payments.put(entry.getBankSlipId(), entry.getDate());
+            } else {
+                cancellations.add(entry.getBankSlipId());
+            }
+        }
+
+        Map<UUID, BankSlipBatchResult> results = new HashMap<>();
+        try {
+            if (!payments.isEmpty()) {
+                results.putAll(bankSlipService.paymentAll(payments));
+            }
+            if (!cancellations.isEmpty()) {
+                results.putAll(bankSlipService.cancelAll(cancellations));
+            }
+        } catch (DataAccessException | TransactionException e) {
+            log.error("Error when write a batch of reconciliation '{}'", reconciliationImport.getId(), e);
+            lineNumbers.forEach((id, lineNumber) -> {
+                if (!results.containsKey(id)) {
+                    reconciliationImport.failed(lineNumber, BankSlipBatchResult.ERROR.name());
+                }
+            });
+        }
+
+        results.forEach((id, result) -> {
+            if (SUCCESS == result) {
+                reconciliationImport.succeeded(1);
+            } else {
+                reconciliationImport.failed(lineNumbers.get(id), result.name());
+            }
+        });
+    }
+
+    private <T> void put(BlockingQueue<T> queue, T item) throws InterruptedException {
+        while (!queue.offer(item, QUEUE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            checkRunning();
+        }
+    }
+
+    private <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+        T item;
+        while ((item = queue.poll(QUEUE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+            checkRunning();
+        }
+        return item;
+    }
+
+    private void checkRunning() {
+        if (!reconciliationImport.isRunning()) {
+            throw new CancellationException();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    private static class LineBatch {
+        private final long firstLineNumber;
+        private final List<String> lines;
+
+        LineBatch(long firstLineNumber, List<String> lines) {
+            this.firstLineNumber = firstLineNumber;
+            this.lines = lines;
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.vitornp.bankslip.reconciliation;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.vitornp.bankslip.BankSlipService;
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import com.vitornp.bankslip.exception.ReconciliationBusyException;
+import com.vitornp.bankslip.exception.ReconciliationNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+@Service
+@Slf4j
+public class ReconciliationService {
+
+    private static final int MAX_IMPORTS_KEPT = 100;
+
+    private final BankSlipService bankSlipService;
+    private final BankSlipProperties.Reconciliation properties;
+    private final Path directory;
+    private final Semaphore runningImports;
+    private final ExecutorService executor;
+    private final Map<UUID, ReconciliationImport> imports = Collections.synchronizedMap(
+        new LinkedHashMap<UUID, ReconciliationImport>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, ReconciliationImport> eldest) {
+                return size() > MAX_IMPORTS_KEPT && !eldest.getValue().isRunning();
+            }
+        }
+    );
+
+    @Autowired
+    public ReconciliationService(BankSlipService bankSlipService, BankSlipProperties properties) throws IOException {
+        this.bankSlipService = bankSlipService;
+        this.properties = properties.getReconciliation();
+        this.directory = Files.createDirectories(Paths.get(this.properties.getDirectory())).toRealPath();
+        this.runningImports = new Semaphore(this.properties.getMaxConcurrentImports());
+        this.executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("reconciliation-%d")
+            .setDaemon(true)
+            .build());
+    }
+
+    ReconciliationImport importUpload(MultipartFile file) {
+        acquire();
+        try {
+            Path path = Files.createTempFile(directory, "upload-", ".tmp");
+            file.transferTo(path.toFile());
+            return start(file.getOriginalFilename(), path, true);
+        } catch (IOException e) {
+            runningImports.release();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            runningImports.release();
+            throw e;
+        }
+    }
+
+    ReconciliationImport importFile(String fileName) {
+        Path path = directory.resolve(fileName).normalize();
+        if (!path.startsWith(directory) || !Files.isRegularFile(path)) {
+            throw new ReconciliationNotFoundException(fileName);
+        }
+
+        acquire();
+        return start(fileName, path, false);
+    }
+
+    Optional<ReconciliationImport> findById(UUID id) {
+        return Optional.ofNullable(imports.get(id));
+    }
+
+    List<ReconciliationImport> findAll() {
+        synchronized (imports) {
+            return new ArrayList<>(imports.values());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void acquire() {
+        if (!runningImports.tryAcquire()) {
+            throw new ReconciliationBusyException();
+        }
+    }
+
+    private ReconciliationImport start(String fileName, Path path, boolean deleteOnFinish) {
+        ReconciliationImport reconciliationImport = new ReconciliationImport(fileName);
+        imports.put(reconciliationImport.getId(), reconciliationImport);
+
+        new ReconciliationPipeline(
+            reconciliationImport,
+            path,
+            bankSlipService,
+            properties.getBatchSize(),
+            properties.getQueueCapacity(),
+            () -> finish(reconciliationImport, path, deleteOnFinish)
+        ).start(executor);
+
+        return reconciliationImport;
+    }
+
+    private void finish(ReconciliationImport reconciliationImport, Path path, boolean delete) {
+        runningImports.release();
+        log.info("Reconciliation '{}' of '{}' finished as {}: {} lines read, {} succeeded, {} failed",
+            reconciliationImport.getId(),
+            reconciliationImport.getFileName(),
+            reconciliationImport.getStatus(),
+            reconciliationImport.getLinesRead().get(),
+            reconciliationImport.getLinesSucceeded().get(),
+            reconciliationImport.getLinesFailed().get());
+
+        if (delete) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Error when delete reconciliation file '{}'", path, e);
+            }
+        }
+    }
+
+}
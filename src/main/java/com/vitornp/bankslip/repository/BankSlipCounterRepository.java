@@ -0,0 +1,109 @@
+package com.vitornp.bankslip.repository;
+
+import com.vitornp.bankslip.dto.BankSlipCounterDimension;
+import com.vitornp.bankslip.dto.BankSlipStatusValue;
+import com.vitornp.bankslip.model.BankSlipCounter;
+import com.vitornp.bankslip.model.Money;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.collect.ImmutableMap.of;
+
+@Repository
+public class BankSlipCounterRepository {
+
+    private static final String INCREMENT_SQL = "UPDATE bank_slip_counter " +
+        "SET bank_slips = bank_slips + :bank_slips, total_in_cents = total_in_cents + :total_in_cents " +
+        "WHERE dimension = :dimension AND dimension_key = :dimension_key AND status = :status";
+
+    private static final RowMapper<BankSlipCounter> ROW_MAPPER = (rs, rowNum) -> BankSlipCounter.builder()
+        .dimension(BankSlipCounterDimension.valueOf(rs.getString("dimension")))
+        .key(rs.getString("dimension_key"))
+        .status(BankSlipStatusValue.valueOf(rs.getString("status")))
+        .bankSlips(rs.getLong("bank_slips"))
+        .totalInCents(Money.of(rs.getBigDecimal("total_in_cents")))
+        .build();
+
+    private final SimpleJdbcInsert simpleJdbcInsert;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate savepointTemplate;
+
+    @Autowired
+    public BankSlipCounterRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.simpleJdbcInsert = new SimpleJdbcInsert(jdbcTemplate).withTableName("bank_slip_counter");
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.savepointTemplate = new TransactionTemplate(transactionManager);
+        this.savepointTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+    }
+
+    /**
+     * Adds the deltas to their counters, creating the missing ones. Callers pass the deltas always in the same
+     * order so concurrent transactions lock the counter rows in the same order. A counter created concurrently is
+     * inserted under a savepoint and then updated, as some databases abort the whole transaction on a failed
+     * insert.
+     */
+    @Timed("bank_slip.repository")
+    public void increment(List<BankSlipCounter> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        SqlParameterSource[] params = deltas.stream()
+            .map(BankSlipCounterRepository::toParams)
+            .toArray(SqlParameterSource[]::new);
+        int[] updated = namedJdbcTemplate.batchUpdate(INCREMENT_SQL, params);
+
+        List<SqlParameterSource> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(params[i]);
+            }
+        }
+        for (SqlParameterSource counter : missing) {
+            try {
+                savepointTemplate.execute(status -> simpleJdbcInsert.execute(counter));
+            } catch (DuplicateKeyException e) {
+                namedJdbcTemplate.update(INCREMENT_SQL, counter);
+            }
+        }
+    }
+
+    @Timed("bank_slip.repository")
+    public List<BankSlipCounter> findAllByDimension(BankSlipCounterDimension dimension) {
+        return namedJdbcTemplate.query(
+            "SELECT * FROM bank_slip_counter WHERE dimension = :dimension AND bank_slips <> 0 " +
+                "ORDER BY dimension_key, status",
+            of("dimension", dimension.toString()),
+            ROW_MAPPER
+        );
+    }
+
+    @Timed("bank_slip.repository")
+    public void deleteAll() {
+        namedJdbcTemplate.getJdbcOperations().update("DELETE FROM bank_slip_counter");
+    }
+
+    private static SqlParameterSource toParams(BankSlipCounter counter) {
+        return new MapSqlParameterSource()
+            .addValue("dimension", counter.getDimension().toString())
+            .addValue("dimension_key", counter.getKey())
+            .addValue("status", counter.getStatus().toString())
+            .addValue("bank_slips", counter.getBankSlips())
+            .addValue("total_in_cents", counter.getTotalInCents().toBigDecimal());
+    }
+
+}
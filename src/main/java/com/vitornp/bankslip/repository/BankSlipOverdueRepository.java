@@ -0,0 +1,113 @@
+package com.vitornp.bankslip.repository;
+
+import com.google.common.collect.ImmutableMap;
+import com.vitornp.bankslip.dto.OverdueTotal;
+import com.vitornp.bankslip.model.BankSlipOverdue;
+import com.vitornp.bankslip.model.Money;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.google.common.collect.ImmutableMap.of;
+import static java.util.Collections.emptyMap;
+
+@Repository
+public class BankSlipOverdueRepository {
+
+    private static final String TOTALS_COLUMNS =
+        "COUNT(*) AS bank_slips, SUM(total_in_cents) AS total_in_cents, SUM(fine) AS fine";
+
+    private static final String DAYS_OVERDUE_BUCKET = "CASE " +
+        "WHEN days_overdue <= 10 THEN '1-10' " +
+        "WHEN days_overdue <= 30 THEN '11-30' " +
+        "WHEN days_overdue <= 60 THEN '31-60' " +
+        "WHEN days_overdue <= 90 THEN '61-90' " +
+        "ELSE '91+' END";
+
+    private static final RowMapper<OverdueTotal> TOTAL_ROW_MAPPER = (rs, rowNum) -> OverdueTotal.builder()
+        .key(rs.getString("total_key"))
+        .bankSlips(rs.getLong("bank_slips"))
+        .totalInCents(Money.of(rs.getBigDecimal("total_in_cents")))
+        .fine(Money.of(rs.getBigDecimal("fine")))
+        .build();
+
+    private final SimpleJdbcInsert simpleJdbcInsert;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    public BankSlipOverdueRepository(JdbcTemplate jdbcTemplate) {
+        this.simpleJdbcInsert = new SimpleJdbcInsert(jdbcTemplate).withTableName("bank_slip_overdue");
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Replaces the rows of the given bank slips, it must run in a transaction so readers never miss them.
+     */
+    @Timed("bank_slip.repository")
+    public void saveAll(List<BankSlipOverdue> overdues) {
+        if (overdues.isEmpty()) {
+            return;
+        }
+
+        namedJdbcTemplate.update(
+            "DELETE FROM bank_slip_overdue WHERE bank_slip_id IN (:ids)",
+            of("ids", overdues.stream().map(BankSlipOverdue::getBankSlipId).collect(Collectors.toList()))
+        );
+        simpleJdbcInsert.executeBatch(overdues.stream()
+            .map(overdue -> new MapSqlParameterSource(toParams(overdue)))
+            .toArray(SqlParameterSource[]::new));
+    }
+
+    @Timed("bank_slip.repository")
+    public int deleteAllSweptBefore(Instant sweptAt) {
+        return namedJdbcTemplate.update(
+            "DELETE FROM bank_slip_overdue WHERE swept_at < :swept_at",
+            of("swept_at", Timestamp.from(sweptAt))
+        );
+    }
+
+    @Timed("bank_slip.repository")
+    public List<OverdueTotal> findTotalsByCustomer() {
+        return namedJdbcTemplate.query(
+            "SELECT customer AS total_key, " + TOTALS_COLUMNS + " FROM bank_slip_overdue " +
+                "GROUP BY customer ORDER BY customer",
+            emptyMap(),
+            TOTAL_ROW_MAPPER
+        );
+    }
+
+    @Timed("bank_slip.repository")
+    public List<OverdueTotal> findTotalsByDaysOverdue() {
+        return namedJdbcTemplate.query(
+            "SELECT " + DAYS_OVERDUE_BUCKET + " AS total_key, " + TOTALS_COLUMNS + " FROM bank_slip_overdue " +
+                "GROUP BY " + DAYS_OVERDUE_BUCKET + " ORDER BY MIN(days_overdue)",
+            emptyMap(),
+            TOTAL_ROW_MAPPER
+        );
+    }
+
+    private static Map<String, Object> toParams(BankSlipOverdue overdue) {
+        return ImmutableMap.<String, Object>builder()
+            .put("bank_slip_id", overdue.getBankSlipId())
+            .put("customer", overdue.getCustomer())
+            .put("due_date", overdue.getDueDate())
+            .put("total_in_cents", overdue.getTotalInCents().toBigDecimal())
+            .put("days_overdue", overdue.getDaysOverdue())
+            .put("fine", overdue.getFine().toBigDecimal())
+            .put("swept_at", Timestamp.from(overdue.getSweptAt()))
+            .build();
+    }
+
+}
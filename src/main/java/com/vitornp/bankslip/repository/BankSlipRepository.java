@@ -1,77 +1,268 @@
 package com.vitornp.bankslip.repository;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.vitornp.bankslip.dto.BankSlipCursor;
+import com.vitornp.bankslip.dto.BankSlipFilter;
+import com.vitornp.bankslip.dto.BankSlipStatusValue;
 import com.vitornp.bankslip.model.BankSlip;
-import lombok.extern.slf4j.Slf4j;
+import com.vitornp.bankslip.model.Money;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.StringJoiner;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 import static com.google.common.collect.ImmutableMap.of;
-import static java.util.Optional.empty;
-import static java.util.Optional.ofNullable;
+import static java.lang.String.format;
 
 @Repository
-@Slf4j
 public class BankSlipRepository {
 
-    private static final RowMapper<BankSlip> ROW_MAPPER = (rs, rowNum) -> BankSlip.builder()
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
+    private static final String UPDATE_STATUS_SQL = "UPDATE bank_slip " +
+        "SET current_status = :current_status, current_status_date = :current_status_date, paid_date = :paid_date, " +
+        "version = :version " +
+        "WHERE id = :id AND version = :version - 1";
+
+    /**
+     * Conditions of each findAll criteria, by the bit of the criteria.
+     */
+    private static final String[] FIND_ALL_CONDITIONS = {
+        "costumer = :costumer",
+        "current_status = :current_status",
+        "due_date >= :due_from",
+        "due_date <= :due_to",
+        "created_at >= :created_from",
+        "created_at <= :created_at AND (created_at < :created_at OR id < :id)",
+    };
+
+    private static final Map<Integer, String> FIND_ALL_SQL = new ConcurrentHashMap<>();
+
+    static final RowMapper<BankSlip> ROW_MAPPER = (rs, rowNum) -> BankSlip.builder()
         .id(rs.getObject("id", UUID.class))
         .dueDate(rs.getObject("due_date", LocalDate.class))
-        .totalInCents(rs.getBigDecimal("total_in_cents"))
+        .totalInCents(Money.of(rs.getBigDecimal("total_in_cents")))
         .customer(rs.getString("costumer"))
+        .status(BankSlipStatusValue.valueOf(rs.getString("current_status")))
+        .statusDate(rs.getObject("current_status_date", LocalDate.class))
+        .paymentDate(rs.getObject("paid_date", LocalDate.class))
         .createdAt(rs.getTimestamp("created_at").toInstant())
+        .version(rs.getLong("version"))
         .build();
 
     private final SimpleJdbcInsert simpleJdbcInsert;
     private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final JdbcTemplate streamJdbcTemplate;
 
     @Autowired
     public BankSlipRepository(JdbcTemplate jdbcTemplate) {
         this.simpleJdbcInsert = new SimpleJdbcInsert(jdbcTemplate).withTableName("bank_slip");
         this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.streamJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamJdbcTemplate.setFetchSize(STREAM_FETCH_SIZE);
     }
 
+    @Timed("bank_slip.repository")
     public BankSlip save(BankSlip bankSlip) {
-        Map<String, Object> params = ImmutableMap.<String, Object>builder()
-            .put("id", bankSlip.getId())
-            .put("due_date", bankSlip.getDueDate())
-            .put("total_in_cents", bankSlip.getTotalInCents())
-            .put("costumer", bankSlip.getCustomer())
-            .put("created_at", Timestamp.from(bankSlip.getCreatedAt()))
-            .build();
-
-        simpleJdbcInsert.execute(params);
+        simpleJdbcInsert.execute(toParams(bankSlip));
 
         return bankSlip;
     }
 
-    public List<BankSlip> findAll() {
-        return namedJdbcTemplate.query("SELECT * FROM bank_slip ORDER BY created_at DESC", ROW_MAPPER);
+    @Timed("bank_slip.repository")
+    public List<BankSlip> saveAll(List<BankSlip> bankSlips) {
+        simpleJdbcInsert.executeBatch(bankSlips.stream()
+            .map(bankSlip -> new MapSqlParameterSource(toParams(bankSlip)))
+            .toArray(SqlParameterSource[]::new));
+
+        return bankSlips;
+    }
+
+    /**
+     * Writes the status of a bank slip carrying the version following the one in the table.
+     *
+     * @throws OptimisticLockingFailureException if the bank slip was changed since it was read
+     */
+    @Timed("bank_slip.repository")
+    public void updateStatus(BankSlip bankSlip) {
+        if (namedJdbcTemplate.update(UPDATE_STATUS_SQL, toStatusParams(bankSlip)) == 0) {
+            throw new OptimisticLockingFailureException(
+                format("Bank slip '%s' changed concurrently", bankSlip.getId()));
+        }
+    }
+
+    /**
+     * @throws OptimisticLockingFailureException if any of the bank slips was changed since it was read
+     */
+    @Timed("bank_slip.repository")
+    public void updateStatuses(List<BankSlip> bankSlips) {
+        int[] updated = tryUpdateStatuses(bankSlips);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                throw new OptimisticLockingFailureException(
+                    format("Bank slip '%s' changed concurrently", bankSlips.get(i).getId()));
+            }
+        }
+    }
+
+    /**
+     * @return the rows updated by bank slip, 0 for the ones changed since they were read
+     */
+    @Timed("bank_slip.repository")
+    public int[] tryUpdateStatuses(List<BankSlip> bankSlips) {
+        return namedJdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, bankSlips.stream()
+            .map(BankSlipRepository::toStatusParams)
+            .toArray(SqlParameterSource[]::new));
+    }
+
+    /**
+     * Page of the bank slips matching the filter, newest first. There is one SQL per combination of criteria in use,
+     * built once and cached.
+     */
+    @Timed("bank_slip.repository")
+    public List<BankSlip> findAll(BankSlipFilter filter, BankSlipCursor after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        int criteria = 0;
+        if (filter.getCustomer() != null) {
+            criteria |= 1;
+            params.addValue("costumer", filter.getCustomer());
+        }
+        if (filter.getStatus() != null) {
+            criteria |= 1 << 1;
+            params.addValue("current_status", filter.getStatus().toString());
+        }
+        if (filter.getDueFrom() != null) {
+            criteria |= 1 << 2;
+            params.addValue("due_from", filter.getDueFrom());
+        }
+        if (filter.getDueTo() != null) {
+            criteria |= 1 << 3;
+            params.addValue("due_to", filter.getDueTo());
+        }
+        if (filter.getCreatedFrom() != null) {
+            criteria |= 1 << 4;
+            params.addValue("created_from", Timestamp.from(filter.getCreatedFrom()));
+        }
+        if (after != null) {
+            criteria |= 1 << 5;
+            params.addValue("created_at", Timestamp.from(after.getCreatedAt())).addValue("id", after.getId());
+        }
+
+        return namedJdbcTemplate.query(
+            FIND_ALL_SQL.computeIfAbsent(criteria, BankSlipRepository::toFindAllSql),
+            params,
+            ROW_MAPPER
+        );
+    }
+
+    /**
+     * Next chunk of pending bank slips due before the date, in id order after the given id so a scan can resume
+     * where the previous chunk ended.
+     */
+    @Timed("bank_slip.repository")
+    public List<BankSlip> findAllPendingDueBefore(LocalDate date, UUID after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("current_status", BankSlipStatusValue.PENDING.toString())
+            .addValue("due_date", date)
+            .addValue("id", after)
+            .addValue("limit", limit);
+
+        return namedJdbcTemplate.query(
+            "SELECT * FROM bank_slip " +
+                "WHERE current_status = :current_status AND due_date < :due_date " +
+                (after == null ? "" : "AND id > :id ") +
+                "ORDER BY id LIMIT :limit",
+            params,
+            ROW_MAPPER
+        );
+    }
+
+    /**
+     * Reads every bank slip, handing each one to the consumer as soon as its row has been read, so only one bank
+     * slip is held in memory at a time.
+     */
+    @Timed("bank_slip.repository")
+    public void streamAll(Consumer<BankSlip> consumer) {
+        streamJdbcTemplate.query(
+            "SELECT * FROM bank_slip ORDER BY created_at DESC, id DESC",
+            (RowCallbackHandler) rs -> consumer.accept(ROW_MAPPER.mapRow(rs, rs.getRow()))
+        );
     }
 
+    @Timed("bank_slip.repository")
     public Optional<BankSlip> findById(UUID id) {
-        try {
-            return ofNullable(namedJdbcTemplate.queryForObject(
-                "SELECT * FROM bank_slip WHERE id = :id",
-                of("id", id),
+        return namedJdbcTemplate.query(
+            "SELECT * FROM bank_slip WHERE id = :id",
+            of("id", id),
+            ROW_MAPPER
+        ).stream().findFirst();
+    }
+
+    @Timed("bank_slip.repository")
+    public List<BankSlip> findAllByIds(Collection<UUID> ids) {
+        List<BankSlip> bankSlips = new ArrayList<>(ids.size());
+        for (List<UUID> chunk : Iterables.partition(ids, IN_CLAUSE_CHUNK_SIZE)) {
+            bankSlips.addAll(namedJdbcTemplate.query(
+                "SELECT * FROM bank_slip WHERE id IN (:ids)",
+                of("ids", chunk),
                 ROW_MAPPER
             ));
-        } catch (EmptyResultDataAccessException e) {
-            log.error("Error when find a bank slip by id", e);
-            return empty();
         }
+        return bankSlips;
+    }
+
+    private static String toFindAllSql(int criteria) {
+        StringJoiner where = new StringJoiner(" AND ", "WHERE ", " ").setEmptyValue("");
+        for (int i = 0; i < FIND_ALL_CONDITIONS.length; i++) {
+            if ((criteria & 1 << i) != 0) {
+                where.add(FIND_ALL_CONDITIONS[i]);
+            }
+        }
+
+        return "SELECT * FROM bank_slip " + where + "ORDER BY created_at DESC, id DESC LIMIT :limit";
+    }
+
+    private static Map<String, Object> toParams(BankSlip bankSlip) {
+        return ImmutableMap.<String, Object>builder()
+            .put("id", bankSlip.getId())
+            .put("due_date", bankSlip.getDueDate())
+            .put("total_in_cents", bankSlip.getTotalInCents().toBigDecimal())
+            .put("costumer", bankSlip.getCustomer())
+            .put("current_status", bankSlip.getStatus().toString())
+            .put("current_status_date", bankSlip.getStatusDate())
+            .put("created_at", Timestamp.from(bankSlip.getCreatedAt()))
+            .put("version", bankSlip.getVersion())
+            .build();
+    }
+
+    private static SqlParameterSource toStatusParams(BankSlip bankSlip) {
+        return new MapSqlParameterSource()
+            .addValue("id", bankSlip.getId())
+            .addValue("current_status", bankSlip.getStatus().toString())
+            .addValue("current_status_date", bankSlip.getStatusDate())
+            .addValue("paid_date", bankSlip.getPaymentDate())
+            .addValue("version", bankSlip.getVersion());
     }
 
 }
@@ -3,21 +3,30 @@ package com.vitornp.bankslip.repository;
 import com.google.common.collect.ImmutableMap;
 import com.vitornp.bankslip.dto.BankSlipStatusValue;
 import com.vitornp.bankslip.model.BankSlipStatus;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static com.google.common.collect.ImmutableMap.of;
+import static java.util.Collections.singletonList;
 
 @Repository
 @Slf4j
@@ -29,6 +38,7 @@ public class BankSlipStatusRepository {
         .date(rs.getObject("date", LocalDate.class))
         .status(BankSlipStatusValue.valueOf(rs.getString("status")))
         .createdAt(rs.getTimestamp("created_at").toInstant())
+        .sequence(rs.getObject("sequence", Long.class))
         .build();
 
     private final SimpleJdbcInsert simpleJdbcInsert;
@@ -40,20 +50,33 @@ public class BankSlipStatusRepository {
         this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
     }
 
-    public BankSlipStatus save(BankSlipStatus bankSlip) {
-        Map<String, Object> params = ImmutableMap.<String, Object>builder()
-            .put("id", bankSlip.getId())
-            .put("bank_slip_id", bankSlip.getBankSlipId())
-            .put("date", bankSlip.getDate())
-            .put("status", bankSlip.getStatus().toString())
-            .put("created_at", Timestamp.from(bankSlip.getCreatedAt()))
-            .build();
+    @Timed("bank_slip.repository")
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void save(BankSlipStatus bankSlipStatus) {
+        saveAll(singletonList(bankSlipStatus));
+    }
 
-        simpleJdbcInsert.execute(params);
+    /**
+     * Saves the status changes without a sequence, they get theirs when the transaction commits, see
+     * {@link #assignSequences(List)}.
+     */
+    @Timed("bank_slip.repository")
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void saveAll(List<BankSlipStatus> bankSlipStatuses) {
+        simpleJdbcInsert.executeBatch(bankSlipStatuses.stream()
+            .map(bankSlipStatus -> new MapSqlParameterSource(toParams(bankSlipStatus)))
+            .toArray(SqlParameterSource[]::new));
 
-        return bankSlip;
+        List<UUID> ids = bankSlipStatuses.stream().map(BankSlipStatus::getId).collect(Collectors.toList());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                assignSequences(ids);
+            }
+        });
     }
 
+    @Timed("bank_slip.repository")
     public List<BankSlipStatus> findAllByBankSlipId(UUID bankSlipId) {
         return namedJdbcTemplate.query(
             "SELECT * FROM bank_slip_status WHERE bank_slip_id = :bank_slip_id",
@@ -62,4 +85,54 @@ public class BankSlipStatusRepository {
         );
     }
 
+    /**
+     * Page of the status changes written after the sequence, in the order they were written.
+     */
+    @Timed("bank_slip.repository")
+    public List<BankSlipStatus> findAllAfter(long sequence, int limit) {
+        return namedJdbcTemplate.query(
+            "SELECT * FROM bank_slip_status WHERE sequence > :sequence ORDER BY sequence LIMIT :limit",
+            of("sequence", sequence, "limit", limit),
+            ROW_MAPPER
+        );
+    }
+
+    @Timed("bank_slip.repository")
+    public long findLastSequence() {
+        return namedJdbcTemplate.getJdbcTemplate()
+            .queryForObject("SELECT last_value FROM bank_slip_status_sequence WHERE id = 1", Long.class);
+    }
+
+    /**
+     * Takes the next sequences from the counter row, which stays locked until the transaction ends, and numbers the
+     * status changes with them. Running just before the commit, the sequences are assigned in commit order while the
+     * counter is locked only as long as the commit takes: once a sequence is visible every lower one is committed.
+     */
+    private void assignSequences(List<UUID> ids) {
+        namedJdbcTemplate.update(
+            "UPDATE bank_slip_status_sequence SET last_value = last_value + :count WHERE id = 1",
+            of("count", ids.size())
+        );
+        long sequence = namedJdbcTemplate.getJdbcTemplate()
+            .queryForObject("SELECT last_value FROM bank_slip_status_sequence WHERE id = 1", Long.class) - ids.size();
+
+        SqlParameterSource[] params = new SqlParameterSource[ids.size()];
+        for (int i = 0; i < params.length; i++) {
+            params[i] = new MapSqlParameterSource()
+                .addValue("id", ids.get(i))
+                .addValue("sequence", ++sequence);
+        }
+        namedJdbcTemplate.batchUpdate("UPDATE bank_slip_status SET sequence = :sequence WHERE id = :id", params);
+    }
+
+    private static Map<String, Object> toParams(BankSlipStatus bankSlipStatus) {
+        return ImmutableMap.<String, Object>builder()
+            .put("id", bankSlipStatus.getId())
+            .put("bank_slip_id", bankSlipStatus.getBankSlipId())
+            .put("date", bankSlipStatus.getDate())
+            .put("status", bankSlipStatus.getStatus().toString())
+            .put("created_at", Timestamp.from(bankSlipStatus.getCreatedAt()))
+            .build();
+    }
+
 }
@@ -0,0 +1,115 @@
+package com.vitornp.bankslip.repository;
+
+import com.vitornp.bankslip.model.IdempotencyKey;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+import static com.google.common.collect.ImmutableMap.of;
+
+@Repository
+public class IdempotencyKeyRepository {
+
+    private static final RowMapper<IdempotencyKey> ROW_MAPPER = (rs, rowNum) -> IdempotencyKey.builder()
+        .operation(rs.getString("operation"))
+        .key(rs.getString("idempotency_key"))
+        .requestHash(rs.getString("request_hash"))
+        .response(rs.getString("response"))
+        .lockedUntil(Optional.ofNullable(rs.getTimestamp("locked_until")).map(Timestamp::toInstant).orElse(null))
+        .createdAt(rs.getTimestamp("created_at").toInstant())
+        .build();
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    public IdempotencyKeyRepository(JdbcTemplate jdbcTemplate) {
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Timed("bank_slip.repository")
+    public Optional<IdempotencyKey> find(String operation, String key, Instant createdAfter) {
+        return namedJdbcTemplate.query(
+            "SELECT * FROM idempotency_key " +
+                "WHERE operation = :operation AND idempotency_key = :idempotency_key AND created_at > :created_at",
+            of("operation", operation, "idempotency_key", key, "created_at", Timestamp.from(createdAfter)),
+            ROW_MAPPER
+        ).stream().findFirst();
+    }
+
+    /**
+     * @throws org.springframework.dao.DuplicateKeyException if the key was already used for the operation
+     */
+    @Timed("bank_slip.repository")
+    public void save(IdempotencyKey idempotencyKey) {
+        namedJdbcTemplate.update(
+            "INSERT INTO idempotency_key (operation, idempotency_key, request_hash, locked_until, created_at) " +
+                "VALUES (:operation, :idempotency_key, :request_hash, :locked_until, :created_at)",
+            of("operation", idempotencyKey.getOperation(), "idempotency_key", idempotencyKey.getKey(),
+                "request_hash", idempotencyKey.getRequestHash(),
+                "locked_until", Timestamp.from(idempotencyKey.getLockedUntil()),
+                "created_at", Timestamp.from(idempotencyKey.getCreatedAt()))
+        );
+    }
+
+    /**
+     * Takes over the key in progress, if it is still locked until the same time as when read.
+     *
+     * @return whether the key was taken over
+     */
+    @Timed("bank_slip.repository")
+    public boolean lock(IdempotencyKey stored, Instant lockedUntil) {
+        return namedJdbcTemplate.update(
+            "UPDATE idempotency_key SET locked_until = :locked_until " +
+                "WHERE operation = :operation AND idempotency_key = :idempotency_key AND response IS NULL " +
+                "AND locked_until = :previous_locked_until",
+            of("operation", stored.getOperation(), "idempotency_key", stored.getKey(),
+                "locked_until", Timestamp.from(lockedUntil),
+                "previous_locked_until", Timestamp.from(stored.getLockedUntil()))
+        ) > 0;
+    }
+
+    /**
+     * Stores the response of the key, if it was not taken over meanwhile.
+     *
+     * @return whether the response was stored
+     */
+    @Timed("bank_slip.repository")
+    public boolean updateResponse(IdempotencyKey idempotencyKey, String response) {
+        return namedJdbcTemplate.update(
+            "UPDATE idempotency_key SET response = :response, locked_until = NULL " +
+                "WHERE operation = :operation AND idempotency_key = :idempotency_key " +
+                "AND locked_until = :locked_until",
+            of("operation", idempotencyKey.getOperation(), "idempotency_key", idempotencyKey.getKey(),
+                "locked_until", Timestamp.from(idempotencyKey.getLockedUntil()), "response", response)
+        ) > 0;
+    }
+
+    /**
+     * Deletes the key, if it was not taken over meanwhile.
+     */
+    @Timed("bank_slip.repository")
+    public void delete(IdempotencyKey idempotencyKey) {
+        namedJdbcTemplate.update(
+            "DELETE FROM idempotency_key WHERE operation = :operation AND idempotency_key = :idempotency_key " +
+                "AND locked_until = :locked_until",
+            of("operation", idempotencyKey.getOperation(), "idempotency_key", idempotencyKey.getKey(),
+                "locked_until", Timestamp.from(idempotencyKey.getLockedUntil()))
+        );
+    }
+
+    @Timed("bank_slip.repository")
+    public int deleteAllCreatedBefore(Instant createdAt) {
+        return namedJdbcTemplate.update(
+            "DELETE FROM idempotency_key WHERE created_at <= :created_at",
+            of("created_at", Timestamp.from(createdAt))
+        );
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.vitornp.bankslip.representation;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Builder
+public class BankSlipBatchItemResponse {
+    private int index;
+    private UUID id;
+    private Map<String, String> errors;
+}
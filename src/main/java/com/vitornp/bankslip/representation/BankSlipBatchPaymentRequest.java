@@ -0,0 +1,22 @@
+package com.vitornp.bankslip.representation;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Future;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Getter
+@Setter
+public class BankSlipBatchPaymentRequest {
+
+    @NotNull
+    private UUID id;
+
+    @NotNull
+    @Future
+    private LocalDate paymentDate;
+
+}
@@ -0,0 +1,18 @@
+package com.vitornp.bankslip.representation;
+
+import com.vitornp.bankslip.dto.BankSlipBatchResult;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Builder
+public class BankSlipBatchResultResponse {
+    private UUID id;
+    private BankSlipBatchResult result;
+    private Map<String, String> errors;
+}
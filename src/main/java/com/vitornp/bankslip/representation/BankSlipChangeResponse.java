@@ -0,0 +1,21 @@
+package com.vitornp.bankslip.representation;
+
+import com.vitornp.bankslip.dto.BankSlipStatusValue;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Builder
+public class BankSlipChangeResponse {
+    private long sequence;
+    private UUID bankSlipId;
+    private BankSlipStatusValue status;
+    private LocalDate date;
+    private Instant createdAt;
+}
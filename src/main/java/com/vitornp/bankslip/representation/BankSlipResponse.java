@@ -1,23 +1,27 @@
 package com.vitornp.bankslip.representation;
 
 import com.vitornp.bankslip.dto.BankSlipStatusValue;
+import com.vitornp.bankslip.model.Money;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.UUID;
 
 @Getter
 @Setter
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class BankSlipResponse {
     private UUID id;
     private LocalDate dueDate;
     private LocalDate paymentDate;
-    private BigDecimal totalInCents;
+    private Money totalInCents;
     private String customer;
     private BankSlipStatusValue status;
-    private BigDecimal fine;
+    private Money fine;
 }
@@ -0,0 +1,18 @@
+package com.vitornp.bankslip.representation;
+
+import com.vitornp.bankslip.dto.BankSlipStatusValue;
+import com.vitornp.bankslip.model.Money;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class BankSlipStatsResponse {
+    private String customer;
+    private String dueMonth;
+    private BankSlipStatusValue status;
+    private long bankSlips;
+    private Money totalInCents;
+}
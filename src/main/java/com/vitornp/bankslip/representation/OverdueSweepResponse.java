@@ -0,0 +1,19 @@
+package com.vitornp.bankslip.representation;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@Builder
+public class OverdueSweepResponse {
+    private LocalDate date;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long bankSlips;
+    private long removed;
+}
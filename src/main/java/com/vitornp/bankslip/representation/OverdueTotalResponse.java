@@ -0,0 +1,17 @@
+package com.vitornp.bankslip.representation;
+
+import com.vitornp.bankslip.model.Money;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class OverdueTotalResponse {
+    private String customer;
+    private String daysOverdue;
+    private long bankSlips;
+    private Money totalInCents;
+    private Money fine;
+}
@@ -0,0 +1,37 @@
+package com.vitornp.bankslip.representation;
+
+import com.vitornp.bankslip.dto.ReconciliationImportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Builder
+public class ReconciliationImportResponse {
+    private UUID id;
+    private String fileName;
+    private ReconciliationImportStatus status;
+    private String failure;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long size;
+    private long bytesRead;
+    private long linesRead;
+    private long linesSucceeded;
+    private long linesFailed;
+    private long linesPerSecond;
+    private List<Error> errors;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Error {
+        private final long line;
+        private final String message;
+    }
+}
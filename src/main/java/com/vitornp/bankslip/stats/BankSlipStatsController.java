@@ -0,0 +1,74 @@
+package com.vitornp.bankslip.stats;
+
+import com.vitornp.bankslip.model.BankSlipCounter;
+import com.vitornp.bankslip.representation.BankSlipStatsResponse;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.vitornp.bankslip.dto.BankSlipCounterDimension.CUSTOMER;
+import static com.vitornp.bankslip.dto.BankSlipCounterDimension.DUE_MONTH;
+import static com.vitornp.bankslip.dto.BankSlipCounterDimension.STATUS;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+@RestController
+@RequestMapping(path = "bankslips/stats", produces = APPLICATION_JSON_VALUE)
+public class BankSlipStatsController {
+
+    private final BankSlipStatsService service;
+
+    @Autowired
+    public BankSlipStatsController(BankSlipStatsService service) {
+        this.service = service;
+    }
+
+    @ApiOperation(value = "Count and total of the bank slips by status")
+    @GetMapping("/status")
+    public List<BankSlipStatsResponse> findAllByStatus() {
+        return service.findAllByDimension(STATUS)
+            .stream()
+            .map(counter -> toResponse(counter).build())
+            .collect(Collectors.toList());
+    }
+
+    @ApiOperation(value = "Count and total of the bank slips by customer and status")
+    @GetMapping("/customers")
+    public List<BankSlipStatsResponse> findAllByCustomer() {
+        return service.findAllByDimension(CUSTOMER)
+            .stream()
+            .map(counter -> toResponse(counter).customer(counter.getKey()).build())
+            .collect(Collectors.toList());
+    }
+
+    @ApiOperation(value = "Count and total of the bank slips by due month and status")
+    @GetMapping("/due-months")
+    public List<BankSlipStatsResponse> findAllByDueMonth() {
+        return service.findAllByDimension(DUE_MONTH)
+            .stream()
+            .map(counter -> toResponse(counter).dueMonth(counter.getKey()).build())
+            .collect(Collectors.toList());
+    }
+
+    @ApiOperation(value = "Rebuild the stats from the bank slips, writes should be stopped while it runs")
+    @PostMapping("/rebuild")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void rebuild() {
+        service.rebuild();
+    }
+
+    private BankSlipStatsResponse.BankSlipStatsResponseBuilder toResponse(BankSlipCounter counter) {
+        return BankSlipStatsResponse.builder()
+            .status(counter.getStatus())
+            .bankSlips(counter.getBankSlips())
+            .totalInCents(counter.getTotalInCents());
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.vitornp.bankslip.stats;
+
+import com.google.common.base.Strings;
+import com.vitornp.bankslip.dto.BankSlipCounterDimension;
+import com.vitornp.bankslip.model.BankSlip;
+import com.vitornp.bankslip.model.BankSlipCounter;
+import com.vitornp.bankslip.model.Money;
+import com.vitornp.bankslip.repository.BankSlipCounterRepository;
+import com.vitornp.bankslip.repository.BankSlipRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.vitornp.bankslip.dto.BankSlipCounterDimension.CUSTOMER;
+import static com.vitornp.bankslip.dto.BankSlipCounterDimension.DUE_MONTH;
+import static com.vitornp.bankslip.dto.BankSlipCounterDimension.STATUS;
+
+/**
+ * Keeps the bank_slip_counter table, the count and total of the bank slips by status, by customer and by due month,
+ * so the stats are read from a few rows regardless of how many bank slips there are.
+ */
+@Service
+@Slf4j
+public class BankSlipStatsService {
+
+    private static final DateTimeFormatter DUE_MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private final BankSlipRepository repository;
+    private final BankSlipCounterRepository counterRepository;
+
+    @Autowired
+    public BankSlipStatsService(BankSlipRepository repository, BankSlipCounterRepository counterRepository) {
+        this.repository = repository;
+        this.counterRepository = counterRepository;
+    }
+
+    /**
+     * Moves the bank slips out of the counters of their previous state and into the ones of their new state, in
+     * the transaction that changed them.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void count(Collection<BankSlip> removed, Collection<BankSlip> added) {
+        Map<String, BankSlipCounter> deltas = new TreeMap<>();
+        removed.forEach(bankSlip -> addDeltas(deltas, bankSlip, -1));
+        added.forEach(bankSlip -> addDeltas(deltas, bankSlip, 1));
+
+        List<BankSlipCounter> changed = new ArrayList<>(deltas.size());
+        for (BankSlipCounter delta : deltas.values()) {
+            if (delta.getBankSlips() != 0 || delta.getTotalInCents().getHundredths() != 0) {
+                changed.add(delta);
+            }
+        }
+        counterRepository.increment(changed);
+    }
+
+    @Timed("bank_slip.service")
+    @Transactional(readOnly = true)
+    public List<BankSlipCounter> findAllByDimension(BankSlipCounterDimension dimension) {
+        return counterRepository.findAllByDimension(dimension);
+    }
+
+    /**
+     * Recomputes every counter from the bank slips, to recover from counters changed by hand or by a failed
+     * migration. Changes committed while it runs may be counted twice or missed, so writes should be stopped.
+     */
+    @Timed("bank_slip.service")
+    @Transactional
+    public void rebuild() {
+        counterRepository.deleteAll();
+
+        Map<String, BankSlipCounter> counters = new TreeMap<>();
+        repository.streamAll(bankSlip -> addDeltas(counters, bankSlip, 1));
+        counterRepository.increment(new ArrayList<>(counters.values()));
+
+        log.info("Rebuilt {} bank slip counters", counters.size());
+    }
+
+    private static void addDeltas(Map<String, BankSlipCounter> deltas, BankSlip bankSlip, int sign) {
+        addDelta(deltas, bankSlip, sign, STATUS, "");
+        addDelta(deltas, bankSlip, sign, CUSTOMER, Strings.nullToEmpty(bankSlip.getCustomer()));
+        addDelta(deltas, bankSlip, sign, DUE_MONTH, DUE_MONTH_FORMATTER.format(bankSlip.getDueDate()));
+    }
+
+    private static void addDelta(Map<String, BankSlipCounter> deltas, BankSlip bankSlip, int sign,
+                                 BankSlipCounterDimension dimension, String key) {
+        Money total = sign < 0 ? bankSlip.getTotalInCents().negate() : bankSlip.getTotalInCents();
+        deltas.merge(
+            dimension + "\u0000" + key + "\u0000" + bankSlip.getStatus(),
+            BankSlipCounter.builder()
+                .dimension(dimension)
+                .key(key)
+                .status(bankSlip.getStatus())
+                .bankSlips(sign)
+                .totalInCents(total)
+                .build(),
+            (counter, delta) -> counter.toBuilder()
+                .bankSlips(counter.getBankSlips() + delta.getBankSlips())
+                .totalInCents(counter.getTotalInCents().plus(delta.getTotalInCents()))
+                .build()
+        );
+    }
+
+}
@@ -0,0 +1,41 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Numbers the status changes already written in the order they were created, in a single ordered pass.
+ */
+public class V20181115230100__fill_column_sequence extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+        jdbcTemplate.setFetchSize(BATCH_SIZE);
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        long[] sequence = {0};
+        jdbcTemplate.query("SELECT id FROM bank_slip_status ORDER BY created_at, id", rs -> {
+            batch.add(new Object[]{++sequence[0], rs.getObject("id")});
+            if (batch.size() == BATCH_SIZE) {
+                update(jdbcTemplate, batch);
+            }
+        });
+        update(jdbcTemplate, batch);
+    }
+
+    private static void update(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE bank_slip_status SET sequence = ? WHERE id = ?", batch);
+            batch.clear();
+        }
+    }
+
+}
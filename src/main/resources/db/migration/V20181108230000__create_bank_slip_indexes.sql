@@ -0,0 +1,8 @@
+CREATE INDEX bank_slip_created_at_idx
+  ON bank_slip (created_at DESC, id DESC);
+
+CREATE INDEX bank_slip_status_bank_slip_id_created_at_idx
+  ON bank_slip_status (bank_slip_id, created_at);
+
+ALTER TABLE bank_slip_status
+  ADD CONSTRAINT bank_slip_status_bank_slip_id_fkey FOREIGN KEY (bank_slip_id) REFERENCES bank_slip (id) ON DELETE CASCADE;
@@ -0,0 +1,37 @@
+ALTER TABLE bank_slip
+  ADD current_status varchar(16);
+
+ALTER TABLE bank_slip
+  ADD current_status_date date;
+
+ALTER TABLE bank_slip
+  ADD paid_date date;
+
+UPDATE bank_slip b
+   SET current_status      = (SELECT s.status
+                                FROM bank_slip_status s
+                               WHERE s.bank_slip_id = b.id
+                               ORDER BY s.created_at DESC
+                               LIMIT 1),
+       current_status_date = (SELECT s.date
+                                FROM bank_slip_status s
+                               WHERE s.bank_slip_id = b.id
+                               ORDER BY s.created_at DESC
+                               LIMIT 1),
+       paid_date           = (SELECT s.date
+                                FROM bank_slip_status s
+                               WHERE s.bank_slip_id = b.id
+                                 AND s.status = 'PAID'
+                               ORDER BY s.created_at
+                               LIMIT 1);
+
+UPDATE bank_slip
+   SET current_status      = 'PENDING',
+       current_status_date = CAST(created_at AS date)
+ WHERE current_status IS NULL;
+
+ALTER TABLE bank_slip
+  ALTER COLUMN current_status SET NOT NULL;
+
+ALTER TABLE bank_slip
+  ALTER COLUMN current_status_date SET NOT NULL;
@@ -0,0 +1,18 @@
+CREATE TABLE bank_slip_overdue
+(
+    bank_slip_id   uuid                     not null,
+    customer       varchar                  not null,
+    due_date       date                     not null,
+    total_in_cents decimal(10, 2)           not null,
+    days_overdue   integer                  not null,
+    fine           decimal(10, 2)           not null,
+    swept_at       timestamp with time zone not null,
+    CONSTRAINT bank_slip_overdue_pkey PRIMARY KEY (bank_slip_id),
+    CONSTRAINT bank_slip_overdue_bank_slip_id_fkey FOREIGN KEY (bank_slip_id) REFERENCES bank_slip (id) ON DELETE CASCADE
+);
+
+CREATE INDEX bank_slip_overdue_customer_idx
+  ON bank_slip_overdue (customer);
+
+CREATE INDEX bank_slip_overdue_swept_at_idx
+  ON bank_slip_overdue (swept_at);
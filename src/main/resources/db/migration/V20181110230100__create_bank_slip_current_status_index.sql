@@ -0,0 +1,2 @@
+CREATE INDEX bank_slip_current_status_id_idx
+  ON bank_slip (current_status, id);
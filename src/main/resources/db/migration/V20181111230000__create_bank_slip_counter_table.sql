@@ -0,0 +1,28 @@
+CREATE TABLE bank_slip_counter
+(
+    dimension      varchar(16)    not null,
+    dimension_key  varchar        not null,
+    status         varchar(16)    not null,
+    bank_slips     bigint         not null,
+    total_in_cents decimal(19, 2) not null,
+    CONSTRAINT bank_slip_counter_pkey PRIMARY KEY (dimension, dimension_key, status)
+);
+
+INSERT INTO bank_slip_counter (dimension, dimension_key, status, bank_slips, total_in_cents)
+SELECT 'STATUS', '', current_status, COUNT(*), SUM(total_in_cents)
+  FROM bank_slip
+ GROUP BY current_status;
+
+INSERT INTO bank_slip_counter (dimension, dimension_key, status, bank_slips, total_in_cents)
+SELECT 'CUSTOMER', CAST(costumer AS varchar), current_status, COUNT(*), SUM(total_in_cents)
+  FROM bank_slip
+ GROUP BY CAST(costumer AS varchar), current_status;
+
+INSERT INTO bank_slip_counter (dimension, dimension_key, status, bank_slips, total_in_cents)
+SELECT 'DUE_MONTH', due_month, current_status, COUNT(*), SUM(total_in_cents)
+  FROM (SELECT CONCAT(CAST(EXTRACT(YEAR FROM due_date) AS varchar), '-',
+                      LPAD(CAST(EXTRACT(MONTH FROM due_date) AS varchar), 2, '0')) AS due_month,
+               current_status,
+               total_in_cents
+          FROM bank_slip) b
+ GROUP BY due_month, current_status;
@@ -0,0 +1,11 @@
+ALTER TABLE bank_slip
+  ALTER COLUMN costumer SET DATA TYPE varchar;
+
+CREATE INDEX bank_slip_costumer_created_at_idx
+  ON bank_slip (costumer, created_at DESC, id DESC);
+
+CREATE INDEX bank_slip_current_status_created_at_idx
+  ON bank_slip (current_status, created_at DESC, id DESC);
+
+CREATE INDEX bank_slip_due_date_idx
+  ON bank_slip (due_date);
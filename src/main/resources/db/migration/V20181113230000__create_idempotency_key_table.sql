@@ -0,0 +1,12 @@
+CREATE TABLE idempotency_key
+(
+    operation       varchar(255)             not null,
+    idempotency_key varchar(255)             not null,
+    request_hash    varchar(64)              not null,
+    response        text,
+    created_at      timestamp with time zone not null,
+    CONSTRAINT idempotency_key_pkey PRIMARY KEY (operation, idempotency_key)
+);
+
+CREATE INDEX idempotency_key_created_at_idx
+  ON idempotency_key (created_at);
@@ -0,0 +1,2 @@
+ALTER TABLE bank_slip
+  ADD version bigint DEFAULT 0 NOT NULL;
@@ -0,0 +1,5 @@
+ALTER TABLE bank_slip_status
+  ADD sequence bigint;
+
+CREATE UNIQUE INDEX bank_slip_status_sequence_idx
+  ON bank_slip_status (sequence);
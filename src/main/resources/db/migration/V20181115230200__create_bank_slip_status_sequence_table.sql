@@ -0,0 +1,10 @@
+CREATE TABLE bank_slip_status_sequence
+(
+    id         integer not null,
+    last_value bigint  not null,
+    CONSTRAINT bank_slip_status_sequence_pkey PRIMARY KEY (id)
+);
+
+INSERT INTO bank_slip_status_sequence (id, last_value)
+SELECT 1, COALESCE(MAX(sequence), 0)
+  FROM bank_slip_status;
@@ -0,0 +1,6 @@
+ALTER TABLE idempotency_key
+  ADD locked_until timestamp with time zone;
+
+UPDATE idempotency_key
+SET locked_until = created_at
+WHERE response IS NULL;
@@ -1,6 +1,9 @@
 package com.vitornp.bankslip;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.vitornp.bankslip.model.BankSlip;
+import com.vitornp.bankslip.model.Money;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,21 +12,37 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.sql.Timestamp;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.startsWith;
+import static com.vitornp.bankslip.dto.BankSlipStatusValue.CANCELED;
+import static com.vitornp.bankslip.dto.BankSlipStatusValue.PAID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment = RANDOM_PORT)
@@ -39,6 +58,12 @@ class BankSlipControllerIT {
     @Autowired
     private BankSlipService bankSlipService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Cache<UUID, Optional<BankSlip>> cache;
+
     @BeforeEach
     void setUp() {
         jdbcTemplate.execute("DELETE FROM bank_slip");
@@ -72,6 +97,126 @@ class BankSlipControllerIT {
             .andExpect(jsonPath("fine").doesNotExist());
     }
 
+    @Test
+    void createWithIdempotencyKey() throws Exception {
+        // Given
+        String idempotencyKey = UUID.randomUUID().toString();
+        String request = "{" +
+            "  \"due_date\": \"" + LocalDate.now().plusDays(1) + "\"," +
+            "  \"customer\": \"Test\"," +
+            "  \"total_in_cents\": 0.1" +
+            "}";
+
+        // When
+        MvcResult first = this.mvc.perform(
+            post("/bankslips")
+                .header("Idempotency-Key", idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request)
+        ).andReturn();
+        ResultActions retry = this.mvc.perform(
+            post("/bankslips")
+                .header("Idempotency-Key", idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request)
+        );
+
+        // Then
+        assertEquals(201, first.getResponse().getStatus());
+        retry
+            .andExpect(status().isCreated())
+            .andExpect(content().json(first.getResponse().getContentAsString(), true));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bank_slip", Integer.class).intValue());
+    }
+
+    @Test
+    void createWithIdempotencyKeyWhenInProgressLockExpired() throws Exception {
+        // Given
+        String idempotencyKey = UUID.randomUUID().toString();
+        String request = "{" +
+            "  \"due_date\": \"" + LocalDate.now().plusDays(1) + "\"," +
+            "  \"customer\": \"Test\"," +
+            "  \"total_in_cents\": 0.1" +
+            "}";
+        this.mvc.perform(
+            post("/bankslips")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request)
+        ).andExpect(status().isCreated());
+        jdbcTemplate.update("INSERT INTO idempotency_key (operation, idempotency_key, request_hash, locked_until, " +
+                "created_at) SELECT operation, ?, request_hash, ?, created_at FROM idempotency_key " +
+                "WHERE operation = 'POST /bankslips' ORDER BY created_at DESC LIMIT 1",
+            idempotencyKey, Timestamp.from(Instant.now().minusSeconds(1)));
+
+        // When
+        ResultActions retry = this.mvc.perform(
+            post("/bankslips")
+                .header("Idempotency-Key", idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request)
+        );
+
+        // Then
+        retry.andExpect(status().isCreated());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bank_slip", Integer.class).intValue());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_key " +
+                "WHERE idempotency_key = ? AND response IS NOT NULL AND locked_until IS NULL",
+            Integer.class, idempotencyKey).intValue());
+    }
+
+    @Test
+    void createWithIdempotencyKeyWhenRequestDiffers() throws Exception {
+        // Given
+        String idempotencyKey = UUID.randomUUID().toString();
+        String request = "{" +
+            "  \"due_date\": \"" + LocalDate.now().plusDays(1) + "\"," +
+            "  \"customer\": \"Test\"," +
+            "  \"total_in_cents\": 0.1" +
+            "}";
+        this.mvc.perform(
+            post("/bankslips")
+                .header("Idempotency-Key", idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request)
+        ).andExpect(status().isCreated());
+
+        // When
+        ResultActions retry = this.mvc.perform(
+            post("/bankslips")
+                .header("Idempotency-Key", idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request.replace("Test", "Other"))
+        );
+
+        // Then
+        retry.andExpect(status().isUnprocessableEntity());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bank_slip", Integer.class).intValue());
+    }
+
+    @Test
+    void createWhenIdempotencyKeyIsBlank() throws Exception {
+        // Given
+        String request = "{" +
+            "  \"due_date\": \"" + LocalDate.now().plusDays(1) + "\"," +
+            "  \"customer\": \"Test\"," +
+            "  \"total_in_cents\": 0.1" +
+            "}";
+
+        // When
+        ResultActions resultActions = this.mvc.perform(
+            post("/bankslips")
+                .header("Idempotency-Key", " ")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request)
+        );
+
+        // Then
+        resultActions
+            .andExpect(status().isBadRequest());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bank_slip", Integer.class).intValue());
+    }
+
     @Test
     void createErrorWhenAnyFieldIsNull() throws Exception {
         // Given
@@ -96,16 +241,72 @@ class BankSlipControllerIT {
             .andExpect(jsonPath("$.errors.due_date").value(startsWith("must not be null")));
     }
 
+    @Test
+    void createAllInBatch() throws Exception {
+        // Given
+        String dueDate = LocalDate.now().plusDays(1).toString();
+        String request = "[" +
+            "  {\"due_date\": \"" + dueDate + "\", \"customer\": \"Test 1\", \"total_in_cents\": 10.5}," +
+            "  {\"due_date\": \"" + dueDate + "\", \"total_in_cents\": 20}," +
+            "  {\"due_date\": \"" + dueDate + "\", \"customer\": \"Test 3\", \"total_in_cents\": 30}" +
+            "]";
+
+        // When
+        ResultActions resultActions = this.mvc.perform(
+            post("/bankslips/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request)
+        );
+
+        // Then
+        resultActions
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.*", hasSize(3)))
+            .andExpect(jsonPath("$[0].index").value(0))
+            .andExpect(jsonPath("$[0].id").value(notNullValue()))
+            .andExpect(jsonPath("$[0].errors").doesNotExist())
+            .andExpect(jsonPath("$[1].index").value(1))
+            .andExpect(jsonPath("$[1].id").doesNotExist())
+            .andExpect(jsonPath("$[1].errors.customer").value(startsWith("must not be blank")))
+            .andExpect(jsonPath("$[2].index").value(2))
+            .andExpect(jsonPath("$[2].id").value(notNullValue()));
+        assertEquals(2, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM bank_slip_status WHERE status = 'PENDING'", Integer.class).intValue());
+    }
+
+    @Test
+    void createAllInBatchWhenItemIsNull() throws Exception {
+        // Given
+        String dueDate = LocalDate.now().plusDays(1).toString();
+        String request = "[" +
+            "  {\"due_date\": \"" + dueDate + "\", \"customer\": \"Test 1\", \"total_in_cents\": 10}," +
+            "  null" +
+            "]";
+
+        // When
+        ResultActions resultActions = this.mvc.perform(
+            post("/bankslips/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request)
+        );
+
+        // Then
+        resultActions
+            .andExpect(status().isBadRequest());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bank_slip", Integer.class).intValue());
+    }
+
     @Test
     void findAll() throws Exception {
         // Given
         LocalDate dueDate = LocalDate.now();
-        BankSlip bankSlipPayment = givenBankSlip(dueDate.plusDays(3), "Test 3", "3000");
-        BankSlip bankSlipCanceled = givenBankSlip(dueDate.plusDays(4), "Test 4", "4000");
+        Instant createdAt = Instant.now();
+        BankSlip bankSlipPayment = givenBankSlip(dueDate.plusDays(3), "Test 3", "3000", createdAt.minusSeconds(3));
+        BankSlip bankSlipCanceled = givenBankSlip(dueDate.plusDays(4), "Test 4", "4000", createdAt.minusSeconds(4));
         bankSlipService.save(bankSlipPayment);
         bankSlipService.save(bankSlipCanceled);
-        bankSlipService.save(givenBankSlip(dueDate.plusDays(2), "Test 1", "1000"));
-        bankSlipService.save(givenBankSlip(dueDate.plusDays(1), "Test 2", "2000"));
+        bankSlipService.save(givenBankSlip(dueDate.plusDays(2), "Test 1", "1000", createdAt.minusSeconds(2)));
+        bankSlipService.save(givenBankSlip(dueDate.plusDays(1), "Test 2", "2000", createdAt.minusSeconds(1)));
 
         bankSlipService.paymentById(bankSlipPayment.getId(), LocalDate.now().plusDays(4));
         bankSlipService.cancelById(bankSlipCanceled.getId());
@@ -127,7 +328,7 @@ class BankSlipControllerIT {
             .andExpect(jsonPath("$[0].total_in_cents").value(2000.0))
             .andExpect(jsonPath("$[0].customer").value("Test 2"))
             .andExpect(jsonPath("$[0].status").value("PENDING"))
-            .andExpect(jsonPath("$[0].fine").doesNotExist())
+            .andExpect(jsonPath("$[0].fine").value(0.0))
 
             .andExpect(jsonPath("$[1].id").value(notNullValue()))
             .andExpect(jsonPath("$[1].due_date").value(dueDate.plusDays(2).toString()))
@@ -135,7 +336,7 @@ class BankSlipControllerIT {
             .andExpect(jsonPath("$[1].total_in_cents").value(1000.0))
             .andExpect(jsonPath("$[1].customer").value("Test 1"))
             .andExpect(jsonPath("$[1].status").value("PENDING"))
-            .andExpect(jsonPath("$[1].fine").doesNotExist())
+            .andExpect(jsonPath("$[1].fine").value(0.0))
 
             .andExpect(jsonPath("$[2].id").value(notNullValue()))
             .andExpect(jsonPath("$[2].due_date").value(dueDate.plusDays(3).toString()))
@@ -143,7 +344,7 @@ class BankSlipControllerIT {
             .andExpect(jsonPath("$[2].total_in_cents").value(3000.0))
             .andExpect(jsonPath("$[2].customer").value("Test 3"))
             .andExpect(jsonPath("$[2].status").value("PAID"))
-            .andExpect(jsonPath("$[2].fine").doesNotExist())
+            .andExpect(jsonPath("$[2].fine").value(15.0))
 
             .andExpect(jsonPath("$[3].id").value(notNullValue()))
             .andExpect(jsonPath("$[3].due_date").value(dueDate.plusDays(4).toString()))
@@ -151,7 +352,7 @@ class BankSlipControllerIT {
             .andExpect(jsonPath("$[3].total_in_cents").value(4000.0))
             .andExpect(jsonPath("$[3].customer").value("Test 4"))
             .andExpect(jsonPath("$[3].status").value("CANCELED"))
-            .andExpect(jsonPath("$[3].fine").doesNotExist());
+            .andExpect(jsonPath("$[3].fine").value(0.0));
     }
 
     @Test
@@ -168,6 +369,135 @@ class BankSlipControllerIT {
         resultActions
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.*", hasSize(0)));
+        assertTrue(meterRegistry.get("bank_slip.service").tag("method", "findAll").timer().count() > 0);
+        assertTrue(meterRegistry.get("bank_slip.repository").tag("method", "findAll").timer().count() > 0);
+    }
+
+    @Test
+    void findAllByPages() throws Exception {
+        // Given
+        LocalDate dueDate = LocalDate.now();
+        BankSlip first = bankSlipService.save(givenBankSlip(dueDate.plusDays(1), "Test 1", "1000"));
+        BankSlip second = bankSlipService.save(givenBankSlip(dueDate.plusDays(2), "Test 2", "2000"));
+        BankSlip third = bankSlipService.save(givenBankSlip(dueDate.plusDays(3), "Test 3", "3000"));
+        List<String> expectedIds = Stream.of(first, second, third)
+            .sorted(Comparator.comparing(BankSlip::getCreatedAt).thenComparing(BankSlip::getId).reversed())
+            .map(bankSlip -> bankSlip.getId().toString())
+            .collect(Collectors.toList());
+
+        // When
+        ResultActions firstPage = this.mvc.perform(
+            get("/bankslips")
+                .param("limit", "2")
+                .contentType(MediaType.APPLICATION_JSON)
+        );
+        String nextCursor = firstPage.andReturn().getResponse().getHeader("X-Next-Cursor");
+        ResultActions secondPage = this.mvc.perform(
+            get("/bankslips")
+                .param("limit", "2")
+                .param("cursor", nextCursor)
+                .contentType(MediaType.APPLICATION_JSON)
+        );
+
+        // Then
+        firstPage
+            .andExpect(status().isOk())
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andExpect(jsonPath("$.*", hasSize(2)))
+            .andExpect(jsonPath("$[0].id").value(expectedIds.get(0)))
+            .andExpect(jsonPath("$[1].id").value(expectedIds.get(1)));
+        secondPage
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Next-Cursor"))
+            .andExpect(jsonPath("$.*", hasSize(1)))
+            .andExpect(jsonPath("$[0].id").value(expectedIds.get(2)));
+    }
+
+    @Test
+    void findAllByFilter() throws Exception {
+        // Given
+        LocalDate dueDate = LocalDate.now();
+        BankSlip expected = bankSlipService.save(givenBankSlip(dueDate.plusDays(2), "Test 1", "1000"));
+        bankSlipService.save(givenBankSlip(dueDate.plusDays(5), "Test 1", "2000"));
+        bankSlipService.save(givenBankSlip(dueDate.plusDays(2), "Test 2", "3000"));
+        BankSlip canceled = bankSlipService.save(givenBankSlip(dueDate.plusDays(3), "Test 1", "4000"));
+        bankSlipService.cancelById(canceled.getId());
+
+        // When
+        ResultActions resultActions = this.mvc.perform(
+            get("/bankslips")
+                .param("customer", "Test 1")
+                .param("status", "PENDING")
+                .param("dueFrom", dueDate.toString())
+                .param("dueTo", dueDate.plusDays(3).toString())
+                .param("createdFrom", expected.getCreatedAt().minusSeconds(60).toString())
+                .contentType(MediaType.APPLICATION_JSON)
+        );
+
+        // Then
+        resultActions
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Next-Cursor"))
+            .andExpect(jsonPath("$.*", hasSize(1)))
+            .andExpect(jsonPath("$[0].id").value(expected.getId().toString()));
+    }
+
+    @Test
+    void findAllWhenStatusIsInvalid() throws Exception {
+        // Given
+
+        // When
+        ResultActions resultActions = this.mvc.perform(
+            get("/bankslips")
+                .param("status", "INVALID")
+                .contentType(MediaType.APPLICATION_JSON)
+        );
+
+        // Then
+        resultActions
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findAllWhenCursorIsInvalid() throws Exception {
+        // Given
+
+        // When
+        ResultActions resultActions = this.mvc.perform(
+            get("/bankslips")
+                .param("cursor", "invalid")
+                .contentType(MediaType.APPLICATION_JSON)
+        );
+
+        // Then
+        resultActions
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamAll() throws Exception {
+        // Given
+        LocalDate dueDate = LocalDate.now();
+        BankSlip bankSlipPayment = bankSlipService.save(givenBankSlip(dueDate.plusDays(1), "Test 1", "1000"));
+        bankSlipService.save(givenBankSlip(dueDate.plusDays(2), "Test 2", "2000"));
+        bankSlipService.paymentById(bankSlipPayment.getId(), dueDate.plusDays(1));
+
+        // When
+        MvcResult mvcResult = this.mvc.perform(
+            get("/bankslips")
+                .param("stream", "true")
+                .accept("application/x-ndjson")
+        )
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        this.mvc.perform(asyncDispatch(mvcResult))
+            .andExpect(status().isOk());
+
+        // Then
+        String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(Stream.of(lines).anyMatch(line -> line.contains("\"status\":\"PAID\"")));
+        assertTrue(Stream.of(lines).anyMatch(line -> line.contains("\"status\":\"PENDING\"")));
     }
 
     @Test
@@ -197,6 +527,23 @@ class BankSlipControllerIT {
             .andExpect(jsonPath("fine").value(10.0));
     }
 
+    @Test
+    void findByIdWhenNotFoundIsCached() throws Exception {
+        // Given
+        UUID id = UUID.randomUUID();
+
+        // When
+        ResultActions resultActions = this.mvc.perform(
+            get(String.format("/bankslips/%s", id))
+                .contentType(MediaType.APPLICATION_JSON)
+        );
+
+        // Then
+        resultActions
+            .andExpect(status().isNotFound());
+        assertEquals(Optional.empty(), cache.getIfPresent(id));
+    }
+
     @Test
     void paymentById() throws Exception {
         // Given
@@ -217,6 +564,35 @@ class BankSlipControllerIT {
             .andExpect(status().isNoContent());
     }
 
+    @Test
+    void paymentByIdWhenRetried() throws Exception {
+        // Given
+        BankSlip bankSlip = bankSlipService.save(givenBankSlip(LocalDate.now().plusDays(2), "Test 1", "1000"));
+        String request = "{" +
+            "  \"payment_date\": \"" + LocalDate.now().plusDays(1) + "\"" +
+            "}";
+
+        // When
+        for (int i = 0; i < 2; i++) {
+            this.mvc.perform(
+                post(String.format("/bankslips/%s/payments", bankSlip.getId()))
+                    .header("Idempotency-Key", "payment")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(request)
+            ).andExpect(status().isNoContent());
+        }
+        this.mvc.perform(
+            post(String.format("/bankslips/%s/payments", bankSlip.getId()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request)
+        ).andExpect(status().isNoContent());
+
+        // Then
+        assertEquals(1, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM bank_slip_status WHERE status = 'PAID' AND bank_slip_id = ?",
+            Integer.class, bankSlip.getId()).intValue());
+    }
+
     @Test
     void paymentByIdWhenNotFound() throws Exception {
         // Given
@@ -236,6 +612,65 @@ class BankSlipControllerIT {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    void paymentAllInBatch() throws Exception {
+        // Given
+        BankSlip bankSlip = bankSlipService.save(givenBankSlip(LocalDate.now().plusDays(2), "Test 1", "1000"));
+        UUID unknownId = UUID.randomUUID();
+        String paymentDate = LocalDate.now().plusDays(1).toString();
+        String request = "[" +
+            "  {\"id\": \"" + bankSlip.getId() + "\", \"payment_date\": \"" + paymentDate + "\"}," +
+            "  {\"id\": \"" + unknownId + "\", \"payment_date\": \"" + paymentDate + "\"}," +
+            "  {\"id\": \"" + unknownId + "\", \"payment_date\": \"2000-01-01\"}" +
+            "]";
+
+        // When
+        ResultActions resultActions = this.mvc.perform(
+            post("/bankslips/payments/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request)
+        );
+
+        // Then
+        resultActions
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.*", hasSize(3)))
+            .andExpect(jsonPath("$[0].id").value(unknownId.toString()))
+            .andExpect(jsonPath("$[0].result").value("INVALID"))
+            .andExpect(jsonPath("$[0].errors.payment_date").value(notNullValue()))
+            .andExpect(jsonPath("$[1].id").value(bankSlip.getId().toString()))
+            .andExpect(jsonPath("$[1].result").value("SUCCESS"))
+            .andExpect(jsonPath("$[2].id").value(unknownId.toString()))
+            .andExpect(jsonPath("$[2].result").value("NOT_FOUND"));
+        assertEquals(PAID, bankSlipService.findDetailById(bankSlip.getId()).getStatus());
+    }
+
+    @Test
+    void cancelAllInBatch() throws Exception {
+        // Given
+        BankSlip pending = bankSlipService.save(givenBankSlip(LocalDate.now().plusDays(2), "Test 1", "1000"));
+        BankSlip paid = bankSlipService.save(givenBankSlip(LocalDate.now().plusDays(2), "Test 2", "2000"));
+        bankSlipService.paymentById(paid.getId(), LocalDate.now().plusDays(1));
+        String request = "[\"" + pending.getId() + "\", \"" + paid.getId() + "\"]";
+
+        // When
+        ResultActions resultActions = this.mvc.perform(
+            post("/bankslips/cancellations/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request)
+        );
+
+        // Then
+        resultActions
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.*", hasSize(2)))
+            .andExpect(jsonPath("$[0].id").value(pending.getId().toString()))
+            .andExpect(jsonPath("$[0].result").value("SUCCESS"))
+            .andExpect(jsonPath("$[1].id").value(paid.getId().toString()))
+            .andExpect(jsonPath("$[1].result").value("NOT_CANCELABLE"));
+        assertEquals(CANCELED, bankSlipService.findDetailById(pending.getId()).getStatus());
+    }
+
     @Test
     void cancelById() throws Exception {
         // Given
@@ -268,10 +703,15 @@ class BankSlipControllerIT {
     }
 
     private BankSlip givenBankSlip(LocalDate dueDate, String customer, String totalInCents) {
+        return givenBankSlip(dueDate, customer, totalInCents, Instant.now());
+    }
+
+    private BankSlip givenBankSlip(LocalDate dueDate, String customer, String totalInCents, Instant createdAt) {
         return BankSlip.builder()
             .dueDate(dueDate)
             .customer(customer)
-            .totalInCents(new BigDecimal(totalInCents))
+            .totalInCents(Money.of(new BigDecimal(totalInCents)))
+            .createdAt(createdAt)
             .build();
     }
 }
@@ -0,0 +1,99 @@
+package com.vitornp.bankslip;
+
+import com.vitornp.bankslip.exception.BankSlipCanceledException;
+import com.vitornp.bankslip.exception.BankSlipConflictException;
+import com.vitornp.bankslip.model.BankSlip;
+import com.vitornp.bankslip.model.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BankSlipServiceConcurrencyIT {
+
+    private static final int BANK_SLIPS = 20;
+    private static final int CHANGES_PER_BANK_SLIP = 40;
+    /**
+     * More than the write pool size, so the changes contend for connections as well as for rows.
+     */
+    private static final int THREADS = 8;
+
+    @Autowired
+    private BankSlipService bankSlipService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void paymentAndCancelOfTheSameBankSlips() throws Exception {
+        // Given
+        List<BankSlip> bankSlips = new ArrayList<>();
+        for (int i = 0; i < BANK_SLIPS; i++) {
+            bankSlips.add(bankSlipService.save(BankSlip.builder()
+                .dueDate(LocalDate.now().plusDays(1))
+                .customer("Concurrency")
+                .totalInCents(Money.ofHundredths(1000))
+                .build()));
+        }
+        List<Callable<Void>> changes = new ArrayList<>();
+        for (BankSlip bankSlip : bankSlips) {
+            for (int i = 0; i < CHANGES_PER_BANK_SLIP; i++) {
+                boolean payment = i % 2 == 0;
+                changes.add(() -> {
+                    try {
+                        if (payment) {
+                            bankSlipService.paymentById(bankSlip.getId(), LocalDate.now());
+                        } else {
+                            bankSlipService.cancelById(bankSlip.getId());
+                        }
+                    } catch (BankSlipCanceledException | BankSlipConflictException e) {
+                        // expected when losing the race
+                    }
+                    return null;
+                });
+            }
+        }
+        Collections.shuffle(changes);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        // When
+        for (Future<Void> change : executor.invokeAll(changes)) {
+            change.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        // Then
+        for (BankSlip bankSlip : bankSlips) {
+            Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT current_status, version FROM bank_slip WHERE id = ?", bankSlip.getId());
+            Map<String, Object> statuses = jdbcTemplate.queryForMap(
+                "SELECT COUNT(*) AS changes, SUM(CASE WHEN status = 'PAID' THEN 1 ELSE 0 END) AS payments " +
+                    "FROM bank_slip_status WHERE bank_slip_id = ? AND status <> 'PENDING'", bankSlip.getId());
+            long payments = ((Number) statuses.get("payments")).longValue();
+
+            assertTrue(payments <= 1, bankSlip.getId() + " paid " + payments + " times");
+            if (payments == 1) {
+                assertEquals("PAID", row.get("current_status"), bankSlip.getId() + " canceled after paid");
+            }
+            assertEquals(((Number) statuses.get("changes")).longValue(), ((Number) row.get("version")).longValue(),
+                bankSlip.getId() + " lost a status change");
+        }
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.vitornp.bankslip;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the concurrent status changes through the group commit writer.
+ */
+@SpringBootTest(properties = "bank-slip.group-commit.enabled=true")
+class BankSlipServiceGroupCommitIT extends BankSlipServiceConcurrencyIT {
+
+}
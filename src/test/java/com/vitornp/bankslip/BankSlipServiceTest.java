@@ -1,35 +1,70 @@
 package com.vitornp.bankslip;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.ImmutableMap;
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import com.vitornp.bankslip.dto.BankSlipBatchResult;
+import com.vitornp.bankslip.dto.BankSlipCursor;
 import com.vitornp.bankslip.dto.BankSlipDetail;
+import com.vitornp.bankslip.dto.BankSlipFilter;
+import com.vitornp.bankslip.dto.BankSlipPage;
 import com.vitornp.bankslip.dto.BankSlipStatusValue;
 import com.vitornp.bankslip.exception.BankSlipCanceledException;
+import com.vitornp.bankslip.exception.BankSlipConflictException;
 import com.vitornp.bankslip.exception.BankSlipNotFoundException;
+import com.vitornp.bankslip.fine.FineRuleEngine;
 import com.vitornp.bankslip.model.BankSlip;
 import com.vitornp.bankslip.model.BankSlipStatus;
+import com.vitornp.bankslip.model.Money;
 import com.vitornp.bankslip.repository.BankSlipRepository;
 import com.vitornp.bankslip.repository.BankSlipStatusRepository;
+import com.vitornp.bankslip.stats.BankSlipStatsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
 
+import static com.vitornp.bankslip.dto.BankSlipBatchResult.NOT_CANCELABLE;
+import static com.vitornp.bankslip.dto.BankSlipBatchResult.NOT_FOUND;
+import static com.vitornp.bankslip.dto.BankSlipBatchResult.SUCCESS;
 import static com.vitornp.bankslip.dto.BankSlipStatusValue.CANCELED;
 import static com.vitornp.bankslip.dto.BankSlipStatusValue.PAID;
 import static com.vitornp.bankslip.dto.BankSlipStatusValue.PENDING;
 import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -37,18 +72,143 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class BankSlipServiceTest {
 
-    @InjectMocks
     private BankSlipService service;
 
+    private Cache<UUID, Optional<BankSlip>> cache;
+
+    private MeterRegistry meterRegistry;
+
     @Mock
     private BankSlipRepository repository;
 
     @Mock
     private BankSlipStatusRepository statusRepository;
 
+    @Mock
+    private BankSlipStatsService statsService;
+
+    @Mock
+    private BankSlipStatusWriter statusWriter;
+
+    @Captor
+    private ArgumentCaptor<BankSlip> bankSlipCaptor;
+
     @Captor
     private ArgumentCaptor<BankSlipStatus> bankSlipStatusCaptor;
 
+    @Captor
+    private ArgumentCaptor<List<BankSlip>> bankSlipsCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<BankSlipStatus>> bankSlipStatusesCaptor;
+
+    @BeforeEach
+    void setUp() {
+        cache = Caffeine.newBuilder().build();
+        meterRegistry = new SimpleMeterRegistry();
+        FineRuleEngine fineRuleEngine = new FineRuleEngine(new BankSlipProperties());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        service = new BankSlipService(repository, statusRepository, statsService, cache, fineRuleEngine,
+            transactionTemplate, Optional.empty(), new BankSlipProperties(), meterRegistry);
+    }
+
+    @Test
+    void save() {
+        // Given
+        BankSlip bankSlip = BankSlip.builder().customer("Test").build();
+        when(repository.save(bankSlipCaptor.capture())).then(invocation -> invocation.getArgument(0));
+
+        // When
+        BankSlip bankSlipSaved = service.save(bankSlip);
+
+        // Then
+        verify(statusRepository).save(bankSlipStatusCaptor.capture());
+        verifyNoMoreInteractions(repository, statusRepository);
+        assertEquals(PENDING, bankSlipCaptor.getValue().getStatus());
+        assertEquals(bankSlip.getId(), bankSlipStatusCaptor.getValue().getBankSlipId());
+        assertEquals(PENDING, bankSlipStatusCaptor.getValue().getStatus());
+        verify(statsService).count(emptyList(), singletonList(bankSlipSaved));
+        assertEquals(Optional.of(bankSlipSaved), cache.getIfPresent(bankSlip.getId()));
+    }
+
+    @Test
+    void saveAll() {
+        // Given
+        BankSlip first = BankSlip.builder().customer("Test 1").build();
+        BankSlip second = BankSlip.builder().customer("Test 2").build();
+        when(repository.saveAll(bankSlipsCaptor.capture())).then(invocation -> invocation.getArgument(0));
+
+        // When
+        List<BankSlip> bankSlips = service.saveAll(asList(first, second));
+
+        // Then
+        verify(statusRepository).saveAll(bankSlipStatusesCaptor.capture());
+        verifyNoMoreInteractions(repository, statusRepository);
+        assertEquals(asList(first.getId(), second.getId()),
+            bankSlips.stream().map(BankSlip::getId).collect(Collectors.toList()));
+        assertTrue(bankSlipsCaptor.getValue().stream().allMatch(bankSlip -> PENDING == bankSlip.getStatus()));
+        List<BankSlipStatus> bankSlipStatuses = bankSlipStatusesCaptor.getValue();
+        assertEquals(asList(first.getId(), second.getId()),
+            bankSlipStatuses.stream().map(BankSlipStatus::getBankSlipId).collect(Collectors.toList()));
+        assertTrue(bankSlipStatuses.stream().allMatch(bankSlipStatus -> PENDING == bankSlipStatus.getStatus()));
+    }
+
+    @Test
+    void findAll() {
+        // Given
+        BankSlip first = givenBankSlip(LocalDate.now().minusDays(5)).status(PAID).build();
+        BankSlip second = givenBankSlip(LocalDate.now().minusDays(11)).build();
+        when(repository.findAll(BankSlipFilter.NONE, null, 3)).thenReturn(asList(first, second));
+
+        // When
+        BankSlipPage page = service.findAll(BankSlipFilter.NONE, null, 2);
+
+        // Then
+        verify(repository).findAll(BankSlipFilter.NONE, null, 3);
+        verifyNoMoreInteractions(repository, statusRepository);
+        assertEquals(2, page.getBankSlips().size());
+        assertEquals(PAID, page.getBankSlips().get(0).getStatus());
+        assertEquals(Money.of(new BigDecimal("7.45")), page.getBankSlips().get(0).getFine());
+        assertEquals(PENDING, page.getBankSlips().get(1).getStatus());
+        assertEquals(Money.of(new BigDecimal("14.90")), page.getBankSlips().get(1).getFine());
+        assertFalse(page.getNext().isPresent());
+    }
+
+    @Test
+    void findAllWhenHasNextPage() {
+        // Given
+        BankSlipCursor after = new BankSlipCursor(Instant.now(), UUID.randomUUID());
+        BankSlip first = givenBankSlip(LocalDate.now()).build();
+        BankSlip second = givenBankSlip(LocalDate.now()).build();
+        when(repository.findAll(BankSlipFilter.NONE, after, 2)).thenReturn(asList(first, second));
+
+        // When
+        BankSlipPage page = service.findAll(BankSlipFilter.NONE, after, 1);
+
+        // Then
+        verify(repository).findAll(BankSlipFilter.NONE, after, 2);
+        verifyNoMoreInteractions(repository, statusRepository);
+        assertEquals(1, page.getBankSlips().size());
+        assertEquals(first.getId(), page.getBankSlips().get(0).getId());
+        assertEquals(first.getId(), page.getNext().map(BankSlipCursor::getId).orElse(null));
+        assertEquals(first.getCreatedAt(), page.getNext().map(BankSlipCursor::getCreatedAt).orElse(null));
+    }
+
+    @Test
+    void findAllWhenEmpty() {
+        // Given
+        when(repository.findAll(BankSlipFilter.NONE, null, 101)).thenReturn(emptyList());
+
+        // When
+        BankSlipPage page = service.findAll(BankSlipFilter.NONE, null, 100);
+
+        // Then
+        verify(repository).findAll(BankSlipFilter.NONE, null, 101);
+        verifyNoMoreInteractions(repository, statusRepository);
+        assertEquals(0, page.getBankSlips().size());
+        assertFalse(page.getNext().isPresent());
+    }
+
     @Test
     void paymentById() {
         // Given
@@ -61,7 +221,13 @@ class BankSlipServiceTest {
 
         // Then
         verify(repository).findById(eq(bankSlipId));
-        verify(statusRepository).findAllByBankSlipId(eq(bankSlipId));
+        verify(repository).updateStatus(bankSlipCaptor.capture());
+        BankSlip bankSlip = bankSlipCaptor.getValue();
+        assertEquals(bankSlipId, bankSlip.getId());
+        assertEquals(PAID, bankSlip.getStatus());
+        assertEquals(paymentDate, bankSlip.getStatusDate());
+        assertEquals(paymentDate, bankSlip.getPaymentDate());
+        assertEquals(1, bankSlip.getVersion());
         verify(statusRepository).save(bankSlipStatusCaptor.capture());
         BankSlipStatus bankSlipStatus = bankSlipStatusCaptor.getValue();
         assertNotNull(bankSlipStatus.getId());
@@ -69,6 +235,156 @@ class BankSlipServiceTest {
         assertEquals(paymentDate, bankSlipStatus.getDate());
         assertEquals(PAID, bankSlipStatus.getStatus());
         assertNotNull(bankSlipStatus.getCreatedAt());
+        verify(statsService).count(any(), eq(singletonList(bankSlip)));
+    }
+
+    @Test
+    void paymentByIdFromCache() {
+        // Given
+        UUID id = UUID.randomUUID();
+        BankSlip bankSlip = givenBankSlip(LocalDate.now()).id(id).status(PENDING).statusDate(LocalDate.now()).build();
+        cache.put(id, Optional.of(bankSlip));
+
+        // When
+        service.paymentById(id, LocalDate.now());
+
+        // Then
+        verify(repository).updateStatus(bankSlipCaptor.capture());
+        verifyNoMoreInteractions(repository);
+        assertEquals(PAID, bankSlipCaptor.getValue().getStatus());
+        assertEquals(1, bankSlipCaptor.getValue().getVersion());
+        verify(statusRepository).save(any());
+        assertNull(cache.getIfPresent(id));
+    }
+
+    @Test
+    void paymentByIdWhenCacheIsStale() {
+        // Given
+        UUID id = UUID.randomUUID();
+        BankSlip bankSlip = givenBankSlip(LocalDate.now()).id(id).status(PENDING).statusDate(LocalDate.now()).build();
+        cache.put(id, Optional.of(bankSlip));
+        doThrow(new OptimisticLockingFailureException("changed")).when(repository).updateStatus(any());
+        mockBankSlip(id, LocalDate.now(), PAID, LocalDate.now().minusDays(1));
+
+        // When
+        service.paymentById(id, LocalDate.now());
+
+        // Then
+        verify(repository).updateStatus(any());
+        verify(repository).findById(eq(id));
+        verifyNoMoreInteractions(repository, statusRepository);
+    }
+
+    @Test
+    void paymentByIdWhenNotFoundIsCached() {
+        // Given
+        UUID id = UUID.randomUUID();
+        cache.put(id, Optional.empty());
+        mockBankSlip(id, LocalDate.now(), PENDING);
+
+        // When
+        service.paymentById(id, LocalDate.now());
+
+        // Then
+        verify(repository).findById(eq(id));
+        verify(repository).updateStatus(any());
+    }
+
+    @Test
+    void paymentByIdWhenAlreadyPaid() {
+        // Given
+        UUID id = UUID.randomUUID();
+        mockBankSlip(id, LocalDate.now(), PAID, LocalDate.now().minusDays(1));
+
+        // When
+        service.paymentById(id, LocalDate.now());
+
+        // Then
+        verify(repository).findById(eq(id));
+        verifyNoMoreInteractions(repository, statusRepository, statsService);
+    }
+
+    @Test
+    void paymentByIdWhenChangedConcurrently() {
+        // Given
+        UUID id = UUID.randomUUID();
+        mockBankSlip(id, LocalDate.now(), PENDING);
+        doThrow(new OptimisticLockingFailureException("changed")).doNothing().when(repository).updateStatus(any());
+
+        // When
+        service.paymentById(id, LocalDate.now());
+
+        // Then
+        verify(repository, times(2)).findById(eq(id));
+        verify(repository, times(2)).updateStatus(any());
+        verify(statusRepository).save(any());
+    }
+
+    @Test
+    void paymentByIdWhenAlwaysChangedConcurrently() {
+        // Given
+        UUID id = UUID.randomUUID();
+        mockBankSlip(id, LocalDate.now(), PENDING);
+        doThrow(new OptimisticLockingFailureException("changed")).when(repository).updateStatus(any());
+
+        // When
+        Throwable exception = assertThrows(BankSlipConflictException.class,
+            () -> service.paymentById(id, LocalDate.now()));
+
+        // Then
+        verify(repository, times(3)).updateStatus(any());
+        verifyNoMoreInteractions(statusRepository);
+        assertEquals(format("Bank slip '%s' is being changed concurrently", id), exception.getMessage());
+    }
+
+    @Test
+    void paymentByIdWithGroupCommit() {
+        // Given
+        UUID id = UUID.randomUUID();
+        BankSlip bankSlip = mockBankSlip(id, LocalDate.now(), PENDING);
+        when(statusWriter.submit(eq(bankSlip), bankSlipCaptor.capture()))
+            .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        givenServiceWithGroupCommit().paymentById(id, LocalDate.now());
+
+        // Then
+        verify(repository).findById(eq(id));
+        verifyNoMoreInteractions(repository, statusRepository, statsService);
+        assertEquals(PAID, bankSlipCaptor.getValue().getStatus());
+        assertEquals(1, bankSlipCaptor.getValue().getVersion());
+    }
+
+    @Test
+    void paymentByIdWithGroupCommitWhenChangedConcurrently() {
+        // Given
+        UUID id = UUID.randomUUID();
+        mockBankSlip(id, LocalDate.now(), PENDING);
+        CompletableFuture<Void> conflict = new CompletableFuture<>();
+        conflict.completeExceptionally(new OptimisticLockingFailureException("changed"));
+        when(statusWriter.submit(any(), any())).thenReturn(conflict, CompletableFuture.completedFuture(null));
+
+        // When
+        givenServiceWithGroupCommit().paymentById(id, LocalDate.now());
+
+        // Then
+        verify(repository, times(2)).findById(eq(id));
+        verify(statusWriter, times(2)).submit(any(), any());
+    }
+
+    @Test
+    void paymentByIdWithGroupCommitWhenTooManyWaiting() {
+        // Given
+        UUID id = UUID.randomUUID();
+        mockBankSlip(id, LocalDate.now(), PENDING);
+        when(statusWriter.submit(any(), any())).thenThrow(new RejectedExecutionException("full"));
+
+        // When
+        givenServiceWithGroupCommit().paymentById(id, LocalDate.now());
+
+        // Then
+        verify(repository).updateStatus(any());
+        verify(statusRepository).save(any());
     }
 
     @Test
@@ -98,7 +414,12 @@ class BankSlipServiceTest {
 
         // Then
         verify(repository).findById(eq(bankSlipId));
-        verify(statusRepository).findAllByBankSlipId(eq(bankSlipId));
+        verify(repository).updateStatus(bankSlipCaptor.capture());
+        BankSlip bankSlip = bankSlipCaptor.getValue();
+        assertEquals(bankSlipId, bankSlip.getId());
+        assertEquals(CANCELED, bankSlip.getStatus());
+        assertEquals(LocalDate.now(), bankSlip.getStatusDate());
+        assertNull(bankSlip.getPaymentDate());
         verify(statusRepository).save(bankSlipStatusCaptor.capture());
         BankSlipStatus bankSlipStatus = bankSlipStatusCaptor.getValue();
         assertNotNull(bankSlipStatus.getId());
@@ -127,19 +448,94 @@ class BankSlipServiceTest {
     void cancelByIdWhenCanNotBeCanceled() {
         // Given
         UUID id = UUID.randomUUID();
-        BankSlip bankSlip = mockBankSlip(id, LocalDate.now());
-        BankSlipStatus bankSlipStatus = mockBankSlipStatus(id, PAID);
+        mockBankSlip(id, LocalDate.now(), PAID, LocalDate.now());
 
         // When
         Throwable exception = assertThrows(BankSlipCanceledException.class, () -> service.cancelById(id));
 
         // Then
         verify(repository).findById(eq(id));
-        verify(statusRepository).findAllByBankSlipId(eq(id));
-        verifyNoMoreInteractions(repository);
+        verifyNoMoreInteractions(repository, statusRepository);
         assertEquals(format("Bank slip '%s' can not be canceled", id), exception.getMessage());
     }
 
+    @Test
+    void cancelByIdWhenPaidFromCache() {
+        // Given
+        UUID id = UUID.randomUUID();
+        cache.put(id, Optional.of(givenBankSlip(LocalDate.now()).id(id).status(PAID).paymentDate(LocalDate.now())
+            .build()));
+
+        // When
+        // Then
+        assertThrows(BankSlipCanceledException.class, () -> service.cancelById(id));
+        verifyNoMoreInteractions(repository, statusRepository);
+    }
+
+    @Test
+    void paymentAll() {
+        // Given
+        BankSlip bankSlip = BankSlip.builder().build();
+        UUID unknownId = UUID.randomUUID();
+        LocalDate paymentDate = LocalDate.now();
+        Map<UUID, LocalDate> paymentDates = ImmutableMap.of(bankSlip.getId(), paymentDate, unknownId, paymentDate);
+        when(repository.findAllByIds(eq(paymentDates.keySet()))).thenReturn(singletonList(bankSlip));
+
+        // When
+        Map<UUID, BankSlipBatchResult> results = service.paymentAll(paymentDates);
+
+        // Then
+        verify(repository).updateStatuses(bankSlipsCaptor.capture());
+        verify(statusRepository).saveAll(bankSlipStatusesCaptor.capture());
+        verifyNoMoreInteractions(repository, statusRepository);
+        assertEquals(ImmutableMap.of(bankSlip.getId(), SUCCESS, unknownId, NOT_FOUND), results);
+        BankSlip bankSlipChanged = bankSlipsCaptor.getValue().get(0);
+        assertEquals(PAID, bankSlipChanged.getStatus());
+        assertEquals(paymentDate, bankSlipChanged.getPaymentDate());
+        BankSlipStatus bankSlipStatus = bankSlipStatusesCaptor.getValue().get(0);
+        assertEquals(bankSlip.getId(), bankSlipStatus.getBankSlipId());
+        assertEquals(PAID, bankSlipStatus.getStatus());
+        assertEquals(paymentDate, bankSlipStatus.getDate());
+    }
+
+    @Test
+    void cancelAll() {
+        // Given
+        BankSlip pending = BankSlip.builder().build();
+        BankSlip paid = BankSlip.builder().status(PAID).build();
+        UUID unknownId = UUID.randomUUID();
+        List<UUID> ids = asList(pending.getId(), paid.getId(), unknownId);
+        when(repository.findAllByIds(eq(ids))).thenReturn(asList(pending, paid));
+
+        // When
+        Map<UUID, BankSlipBatchResult> results = service.cancelAll(ids);
+
+        // Then
+        verify(repository).updateStatuses(bankSlipsCaptor.capture());
+        verify(statusRepository).saveAll(bankSlipStatusesCaptor.capture());
+        verifyNoMoreInteractions(repository, statusRepository);
+        assertEquals(ImmutableMap.of(pending.getId(), SUCCESS, paid.getId(), NOT_CANCELABLE, unknownId, NOT_FOUND),
+            results);
+        assertEquals(singletonList(pending.getId()),
+            bankSlipsCaptor.getValue().stream().map(BankSlip::getId).collect(Collectors.toList()));
+        assertEquals(CANCELED, bankSlipsCaptor.getValue().get(0).getStatus());
+        assertEquals(CANCELED, bankSlipStatusesCaptor.getValue().get(0).getStatus());
+    }
+
+    @Test
+    void cancelAllWhenNothingToCancel() {
+        // Given
+        UUID unknownId = UUID.randomUUID();
+        when(repository.findAllByIds(eq(singletonList(unknownId)))).thenReturn(emptyList());
+
+        // When
+        Map<UUID, BankSlipBatchResult> results = service.cancelAll(singletonList(unknownId));
+
+        // Then
+        verifyNoMoreInteractions(statusRepository);
+        assertEquals(ImmutableMap.of(unknownId, NOT_FOUND), results);
+    }
+
     @Test
     void findDetailByIdWhenNotFound() {
         // Given
@@ -155,68 +551,103 @@ class BankSlipServiceTest {
         assertEquals(format("Bank slip '%s' not found", id), exception.getMessage());
     }
 
+    @Test
+    void findDetailByIdWhenNotFoundFromCache() {
+        // Given
+        UUID id = UUID.randomUUID();
+        when(repository.findById(eq(id))).thenReturn(Optional.empty());
+
+        // When
+        assertThrows(BankSlipNotFoundException.class, () -> service.findDetailById(id));
+        Throwable exception = assertThrows(BankSlipNotFoundException.class, () -> service.findDetailById(id));
+
+        // Then
+        verify(repository).findById(eq(id));
+        verifyNoMoreInteractions(repository);
+        assertEquals(Optional.empty(), cache.getIfPresent(id));
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
+    @Test
+    void findDetailByIdFromCache() {
+        // Given
+        UUID id = UUID.randomUUID();
+        BankSlip bankSlip = mockBankSlip(id, LocalDate.now().minusDays(11), PENDING);
+
+        // When
+        service.findDetailById(id);
+        BankSlipDetail bankSlipDetail = service.findDetailById(id);
+
+        // Then
+        verify(repository).findById(eq(id));
+        verifyNoMoreInteractions(repository, statusRepository);
+        assertEqualsBankSlipDetail(bankSlip, bankSlipDetail);
+        assertEquals(Money.of(new BigDecimal("14.90")), bankSlipDetail.getFine());
+        assertEquals(2, meterRegistry.get("bank_slip.fine").timer().count());
+    }
+
     @Test
     void findDetailByIdWhenPendingAndDueDateIsNow() {
         // Given
         UUID id = UUID.randomUUID();
-        BankSlip bankSlip = mockBankSlip(id, LocalDate.now());
-        BankSlipStatus bankSlipStatus = mockBankSlipStatus(id, PENDING);
+        BankSlip bankSlip = mockBankSlip(id, LocalDate.now(), PENDING);
 
         // When
         BankSlipDetail bankSlipDetail = service.findDetailById(id);
 
         // Then
         verify(repository).findById(eq(id));
-        assertEqualsBankSlipDetail(bankSlip, bankSlipStatus, bankSlipDetail);
-        assertEquals(new BigDecimal("0.00"), bankSlipDetail.getFine());
+        verifyNoMoreInteractions(repository, statusRepository);
+        assertEqualsBankSlipDetail(bankSlip, bankSlipDetail);
+        assertEquals(Money.of(new BigDecimal("0.00")), bankSlipDetail.getFine());
     }
 
     @Test
     void findDetailByIdWhenPendingAndDueDateIsFiveDaysAgo() {
         // Given
         UUID id = UUID.randomUUID();
-        BankSlip bankSlip = mockBankSlip(id, LocalDate.now().minusDays(5));
-        BankSlipStatus bankSlipStatus = mockBankSlipStatus(id, PENDING);
+        BankSlip bankSlip = mockBankSlip(id, LocalDate.now().minusDays(5), PENDING);
 
         // When
         BankSlipDetail bankSlipDetail = service.findDetailById(id);
 
         // Then
         verify(repository).findById(eq(id));
-        assertEqualsBankSlipDetail(bankSlip, bankSlipStatus, bankSlipDetail);
-        assertEquals(new BigDecimal("7.45"), bankSlipDetail.getFine());
+        verifyNoMoreInteractions(repository, statusRepository);
+        assertEqualsBankSlipDetail(bankSlip, bankSlipDetail);
+        assertEquals(Money.of(new BigDecimal("7.45")), bankSlipDetail.getFine());
     }
 
     @Test
     void findDetailByIdWhenPendingAndDueDateIsTenDaysAgo() {
         // Given
         UUID id = UUID.randomUUID();
-        BankSlip bankSlip = mockBankSlip(id, LocalDate.now().minusDays(10));
-        BankSlipStatus bankSlipStatus = mockBankSlipStatus(id, PENDING);
+        BankSlip bankSlip = mockBankSlip(id, LocalDate.now().minusDays(10), PENDING);
 
         // When
         BankSlipDetail bankSlipDetail = service.findDetailById(id);
 
         // Then
         verify(repository).findById(eq(id));
-        assertEqualsBankSlipDetail(bankSlip, bankSlipStatus, bankSlipDetail);
-        assertEquals(new BigDecimal("7.45"), bankSlipDetail.getFine());
+        verifyNoMoreInteractions(repository, statusRepository);
+        assertEqualsBankSlipDetail(bankSlip, bankSlipDetail);
+        assertEquals(Money.of(new BigDecimal("7.45")), bankSlipDetail.getFine());
     }
 
     @Test
     void findDetailByIdWhenPendingAndDueDateIsElevenDaysAgo() {
         // Given
         UUID id = UUID.randomUUID();
-        BankSlip bankSlip = mockBankSlip(id, LocalDate.now().minusDays(11));
-        BankSlipStatus bankSlipStatus = mockBankSlipStatus(id, PENDING);
+        BankSlip bankSlip = mockBankSlip(id, LocalDate.now().minusDays(11), PENDING);
 
         // When
         BankSlipDetail bankSlipDetail = service.findDetailById(id);
 
         // Then
         verify(repository).findById(eq(id));
-        assertEqualsBankSlipDetail(bankSlip, bankSlipStatus, bankSlipDetail);
-        assertEquals(new BigDecimal("14.90"), bankSlipDetail.getFine());
+        verifyNoMoreInteractions(repository, statusRepository);
+        assertEqualsBankSlipDetail(bankSlip, bankSlipDetail);
+        assertEquals(Money.of(new BigDecimal("14.90")), bankSlipDetail.getFine());
     }
 
 
@@ -224,64 +655,64 @@ class BankSlipServiceTest {
     void findDetailByIdWhenPaidAndDueDateIsNow() {
         // Given
         UUID id = UUID.randomUUID();
-        BankSlip bankSlip = mockBankSlip(id, LocalDate.now());
-        BankSlipStatus bankSlipStatus = mockBankSlipStatus(id, PAID, LocalDate.now());
+        BankSlip bankSlip = mockBankSlip(id, LocalDate.now(), PAID, LocalDate.now());
 
         // When
         BankSlipDetail bankSlipDetail = service.findDetailById(id);
 
         // Then
         verify(repository).findById(eq(id));
-        assertEqualsBankSlipDetail(bankSlip, bankSlipStatus, bankSlipDetail);
-        assertEquals(new BigDecimal("0.00"), bankSlipDetail.getFine());
+        verifyNoMoreInteractions(repository, statusRepository);
+        assertEqualsBankSlipDetail(bankSlip, bankSlipDetail);
+        assertEquals(Money.of(new BigDecimal("0.00")), bankSlipDetail.getFine());
     }
 
     @Test
     void findDetailByIdWhenPaidAndDueDateIsFiveDaysAhead() {
         // Given
         UUID id = UUID.randomUUID();
-        BankSlip bankSlip = mockBankSlip(id, LocalDate.now());
-        BankSlipStatus bankSlipStatus = mockBankSlipStatus(id, PAID, LocalDate.now().plusDays(5));
+        BankSlip bankSlip = mockBankSlip(id, LocalDate.now(), PAID, LocalDate.now().plusDays(5));
 
         // When
         BankSlipDetail bankSlipDetail = service.findDetailById(id);
 
         // Then
         verify(repository).findById(eq(id));
-        assertEqualsBankSlipDetail(bankSlip, bankSlipStatus, bankSlipDetail);
-        assertEquals(new BigDecimal("7.45"), bankSlipDetail.getFine());
+        verifyNoMoreInteractions(repository, statusRepository);
+        assertEqualsBankSlipDetail(bankSlip, bankSlipDetail);
+        assertEquals(Money.of(new BigDecimal("7.45")), bankSlipDetail.getFine());
     }
 
     @Test
     void findDetailByIdWhenPaidAndDueDateIsTenDaysAhead() {
         // Given
         UUID id = UUID.randomUUID();
-        BankSlip bankSlip = mockBankSlip(id, LocalDate.now());
-        BankSlipStatus bankSlipStatus = mockBankSlipStatus(id, PAID, LocalDate.now().plusDays(10));
+        BankSlip bankSlip = mockBankSlip(id, LocalDate.now(), PAID, LocalDate.now().plusDays(10));
 
         // When
         BankSlipDetail bankSlipDetail = service.findDetailById(id);
 
         // Then
         verify(repository).findById(eq(id));
-        assertEqualsBankSlipDetail(bankSlip, bankSlipStatus, bankSlipDetail);
-        assertEquals(new BigDecimal("7.45"), bankSlipDetail.getFine());
+        verifyNoMoreInteractions(repository, statusRepository);
+        assertEqualsBankSlipDetail(bankSlip, bankSlipDetail);
+        assertEquals(Money.of(new BigDecimal("7.45")), bankSlipDetail.getFine());
     }
 
     @Test
     void findDetailByIdWhenPaidAndDueDateIsElevenDaysAhead() {
         // Given
         UUID id = UUID.randomUUID();
-        BankSlip bankSlip = mockBankSlip(id, LocalDate.now());
-        BankSlipStatus bankSlipStatus = mockBankSlipStatus(id, PAID, LocalDate.now().plusDays(11));
+        BankSlip bankSlip = mockBankSlip(id, LocalDate.now(), PAID, LocalDate.now().plusDays(11));
 
         // When
         BankSlipDetail bankSlipDetail = service.findDetailById(id);
 
         // Then
         verify(repository).findById(eq(id));
-        assertEqualsBankSlipDetail(bankSlip, bankSlipStatus, bankSlipDetail);
-        assertEquals(new BigDecimal("14.90"), bankSlipDetail.getFine());
+        verifyNoMoreInteractions(repository, statusRepository);
+        assertEqualsBankSlipDetail(bankSlip, bankSlipDetail);
+        assertEquals(Money.of(new BigDecimal("14.90")), bankSlipDetail.getFine());
     }
 
 
@@ -289,83 +720,89 @@ class BankSlipServiceTest {
     void findDetailByIdWhenCanceledAndDueDateIsNow() {
         // Given
         UUID id = UUID.randomUUID();
-        BankSlip bankSlip = mockBankSlip(id, LocalDate.now());
-        BankSlipStatus bankSlipStatus = mockBankSlipStatus(id, CANCELED);
+        BankSlip bankSlip = mockBankSlip(id, LocalDate.now(), CANCELED);
 
         // When
         BankSlipDetail bankSlipDetail = service.findDetailById(id);
 
         // Then
         verify(repository).findById(eq(id));
-        assertEqualsBankSlipDetail(bankSlip, bankSlipStatus, bankSlipDetail);
-        assertEquals(new BigDecimal("0.00"), bankSlipDetail.getFine());
+        verifyNoMoreInteractions(repository, statusRepository);
+        assertEqualsBankSlipDetail(bankSlip, bankSlipDetail);
+        assertEquals(Money.of(new BigDecimal("0.00")), bankSlipDetail.getFine());
     }
 
     @Test
     void findDetailByIdWhenCanceledAndDueDateIsFiveDaysAgo() {
         // Given
         UUID id = UUID.randomUUID();
-        BankSlip bankSlip = mockBankSlip(id, LocalDate.now().plusDays(10));
-        BankSlipStatus bankSlipStatus = mockBankSlipStatus(id, CANCELED);
+        BankSlip bankSlip = mockBankSlip(id, LocalDate.now().plusDays(10), CANCELED);
 
         // When
         BankSlipDetail bankSlipDetail = service.findDetailById(id);
 
         // Then
         verify(repository).findById(eq(id));
-        assertEqualsBankSlipDetail(bankSlip, bankSlipStatus, bankSlipDetail);
-        assertEquals(new BigDecimal("0.00"), bankSlipDetail.getFine());
+        verifyNoMoreInteractions(repository, statusRepository);
+        assertEqualsBankSlipDetail(bankSlip, bankSlipDetail);
+        assertEquals(Money.of(new BigDecimal("0.00")), bankSlipDetail.getFine());
     }
 
     @Test
     void findDetailByIdWhenCanceledAndDueDateIsTenDaysAgo() {
         // Given
         UUID id = UUID.randomUUID();
-        BankSlip bankSlip = mockBankSlip(id, LocalDate.now().plusDays(11));
-        BankSlipStatus bankSlipStatus = mockBankSlipStatus(id, CANCELED);
+        BankSlip bankSlip = mockBankSlip(id, LocalDate.now().plusDays(11), CANCELED);
 
         // When
         BankSlipDetail bankSlipDetail = service.findDetailById(id);
 
         // Then
         verify(repository).findById(eq(id));
-        assertEqualsBankSlipDetail(bankSlip, bankSlipStatus, bankSlipDetail);
-        assertEquals(new BigDecimal("0.00"), bankSlipDetail.getFine());
+        verifyNoMoreInteractions(repository, statusRepository);
+        assertEqualsBankSlipDetail(bankSlip, bankSlipDetail);
+        assertEquals(Money.of(new BigDecimal("0.00")), bankSlipDetail.getFine());
+    }
+
+    private BankSlipService givenServiceWithGroupCommit() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        FineRuleEngine fineRuleEngine = new FineRuleEngine(new BankSlipProperties());
+        return new BankSlipService(repository, statusRepository, statsService, cache, fineRuleEngine,
+            transactionTemplate, Optional.of(statusWriter), new BankSlipProperties(), meterRegistry);
+    }
+
+    private BankSlip mockBankSlip(UUID id, LocalDate dueDate, BankSlipStatusValue status) {
+        return mockBankSlip(id, dueDate, status, null);
     }
 
-    private BankSlip mockBankSlip(UUID id, LocalDate dueDate) {
+    private BankSlip mockBankSlip(UUID id, LocalDate dueDate, BankSlipStatusValue status, LocalDate paymentDate) {
         BankSlip bankSlip = BankSlip.builder()
             .id(id)
             .dueDate(dueDate)
-            .totalInCents(new BigDecimal("1490.13"))
+            .totalInCents(Money.of(new BigDecimal("1490.13")))
             .customer("Test")
+            .status(status)
+            .statusDate(paymentDate == null ? LocalDate.now() : paymentDate)
+            .paymentDate(paymentDate)
             .build();
         when(repository.findById(eq(id))).thenReturn(Optional.of(bankSlip));
         return bankSlip;
     }
 
-    private BankSlipStatus mockBankSlipStatus(UUID bankSlipId, BankSlipStatusValue status) {
-        return mockBankSlipStatus(bankSlipId, status, null);
-    }
-
-    private BankSlipStatus mockBankSlipStatus(UUID bankSlipId, BankSlipStatusValue status, LocalDate paymentDate) {
-        BankSlipStatus bankSlipStatus = BankSlipStatus.builder()
-            .bankSlipId(bankSlipId)
-            .status(status)
-            .date(paymentDate)
-            .build();
-
-        when(statusRepository.findAllByBankSlipId(eq(bankSlipId))).thenReturn(singletonList(bankSlipStatus));
-        return bankSlipStatus;
+    private BankSlip.BankSlipBuilder givenBankSlip(LocalDate dueDate) {
+        return BankSlip.builder()
+            .dueDate(dueDate)
+            .totalInCents(Money.of(new BigDecimal("1490.13")))
+            .customer("Test");
     }
 
-    private void assertEqualsBankSlipDetail(BankSlip expected, BankSlipStatus expectedStatus, BankSlipDetail actual) {
+    private void assertEqualsBankSlipDetail(BankSlip expected, BankSlipDetail actual) {
         assertEquals(expected.getId(), actual.getId());
         assertEquals(expected.getDueDate(), actual.getDueDate());
         assertEquals(expected.getTotalInCents(), actual.getTotalInCents());
         assertEquals(expected.getCustomer(), actual.getCustomer());
         assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
-        assertEquals(expectedStatus.getStatus(), actual.getStatus());
-        assertEquals(expectedStatus.getDate(), actual.getPaymentDate());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getPaymentDate(), actual.getPaymentDate());
     }
 }
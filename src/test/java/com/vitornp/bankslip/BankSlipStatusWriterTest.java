@@ -0,0 +1,174 @@
+package com.vitornp.bankslip;
+
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import com.vitornp.bankslip.model.BankSlip;
+import com.vitornp.bankslip.model.BankSlipStatus;
+import com.vitornp.bankslip.repository.BankSlipRepository;
+import com.vitornp.bankslip.repository.BankSlipStatusRepository;
+import com.vitornp.bankslip.stats.BankSlipStatsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.vitornp.bankslip.dto.BankSlipStatusValue.PAID;
+import static com.vitornp.bankslip.dto.BankSlipStatusValue.PENDING;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BankSlipStatusWriterTest {
+
+    private BankSlipStatusWriter writer;
+
+    private BankSlipProperties.GroupCommit properties;
+
+    @Mock
+    private BankSlipRepository repository;
+
+    @Mock
+    private BankSlipStatusRepository statusRepository;
+
+    @Mock
+    private BankSlipStatsService statsService;
+
+    @Captor
+    private ArgumentCaptor<List<BankSlipStatus>> bankSlipStatusesCaptor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new BankSlipProperties.GroupCommit();
+        writer = givenWriter();
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.close();
+    }
+
+    @Test
+    void submitWritesWaitingChangesTogether() throws Exception {
+        // Given
+        BankSlip first = givenBankSlip();
+        BankSlip firstPaid = paid(first);
+        BankSlip second = givenBankSlip();
+        BankSlip secondPaid = paid(second);
+        when(repository.tryUpdateStatuses(asList(firstPaid, secondPaid))).thenReturn(new int[]{1, 1});
+        CompletableFuture<Void> firstCommitted = writer.submit(first, firstPaid);
+        CompletableFuture<Void> secondCommitted = writer.submit(second, secondPaid);
+
+        // When
+        writer.start();
+        firstCommitted.get(5, TimeUnit.SECONDS);
+        secondCommitted.get(5, TimeUnit.SECONDS);
+
+        // Then
+        verify(statusRepository).saveAll(bankSlipStatusesCaptor.capture());
+        assertEquals(asList(first.getId(), second.getId()), bankSlipStatusesCaptor.getValue().stream()
+            .map(BankSlipStatus::getBankSlipId)
+            .collect(Collectors.toList()));
+        verify(statsService).count(asList(first, second), asList(firstPaid, secondPaid));
+    }
+
+    @Test
+    void submitWhenChangedConcurrently() throws Exception {
+        // Given
+        BankSlip bankSlip = givenBankSlip();
+        BankSlip firstPaid = paid(bankSlip);
+        BankSlip secondPaid = paid(bankSlip);
+        when(repository.tryUpdateStatuses(asList(firstPaid, secondPaid))).thenReturn(new int[]{1, 0});
+        CompletableFuture<Void> firstCommitted = writer.submit(bankSlip, firstPaid);
+        CompletableFuture<Void> secondCommitted = writer.submit(bankSlip, secondPaid);
+
+        // When
+        writer.start();
+        firstCommitted.get(5, TimeUnit.SECONDS);
+        Throwable exception = assertThrows(ExecutionException.class, () -> secondCommitted.get(5, TimeUnit.SECONDS));
+
+        // Then
+        assertTrue(exception.getCause() instanceof OptimisticLockingFailureException);
+        verify(statusRepository).saveAll(bankSlipStatusesCaptor.capture());
+        assertEquals(1, bankSlipStatusesCaptor.getValue().size());
+        verify(statsService).count(singletonList(bankSlip), singletonList(firstPaid));
+    }
+
+    @Test
+    void submitWhenWriteFails() {
+        // Given
+        BankSlip first = givenBankSlip();
+        BankSlip second = givenBankSlip();
+        when(repository.tryUpdateStatuses(any())).thenThrow(new DataAccessResourceFailureException("down"));
+        CompletableFuture<Void> firstCommitted = writer.submit(first, paid(first));
+        CompletableFuture<Void> secondCommitted = writer.submit(second, paid(second));
+
+        // When
+        writer.start();
+        Throwable firstException = assertThrows(ExecutionException.class,
+            () -> firstCommitted.get(5, TimeUnit.SECONDS));
+        Throwable secondException = assertThrows(ExecutionException.class,
+            () -> secondCommitted.get(5, TimeUnit.SECONDS));
+
+        // Then
+        assertTrue(firstException.getCause() instanceof DataAccessResourceFailureException);
+        assertTrue(secondException.getCause() instanceof DataAccessResourceFailureException);
+        verifyNoMoreInteractions(statusRepository, statsService);
+    }
+
+    @Test
+    void submitWhenTooManyWaiting() {
+        // Given
+        writer.close();
+        properties.setQueueCapacity(1);
+        writer = givenWriter();
+        BankSlip bankSlip = givenBankSlip();
+        writer.submit(bankSlip, paid(bankSlip));
+
+        // When
+        // Then
+        assertThrows(RejectedExecutionException.class, () -> writer.submit(bankSlip, paid(bankSlip)));
+    }
+
+    private BankSlipStatusWriter givenWriter() {
+        return new BankSlipStatusWriter(repository, statusRepository, statsService,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), properties, new SimpleMeterRegistry());
+    }
+
+    private BankSlip givenBankSlip() {
+        return BankSlip.builder().status(PENDING).dueDate(LocalDate.now()).customer("Test").build();
+    }
+
+    private BankSlip paid(BankSlip bankSlip) {
+        return bankSlip.toBuilder()
+            .status(PAID)
+            .statusDate(LocalDate.now())
+            .paymentDate(LocalDate.now())
+            .version(bankSlip.getVersion() + 1)
+            .build();
+    }
+
+}
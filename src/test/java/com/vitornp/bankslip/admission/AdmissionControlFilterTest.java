@@ -0,0 +1,169 @@
+package com.vitornp.bankslip.admission;
+
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControlFilterTest {
+
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final FilterChain blockingChain = (request, response) -> {
+        entered.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    };
+
+    private MeterRegistry meterRegistry;
+    private BankSlipProperties.Admission properties;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new BankSlipProperties.Admission();
+        properties.setMaxConcurrentRequests(1);
+        properties.setMaxWait(Duration.ofMillis(50));
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void doFilterWhenSaturated() throws Exception {
+        // Given
+        properties.setMaxWaitingRequests(1);
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties, meterRegistry);
+        handleBlocked(filter);
+
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), response, (request, ignored) -> {
+        });
+
+        // Then
+        assertEquals(429, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertEquals(1, meterRegistry.get("bank_slip.admission.rejected").counter().count());
+        assertEquals(1, meterRegistry.get("bank_slip.admission.in_flight").gauge().value());
+    }
+
+    @Test
+    void doFilterWhenWaitingQueueIsFull() throws Exception {
+        // Given
+        properties.setMaxWaitingRequests(0);
+        properties.setMaxWait(Duration.ofSeconds(10));
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties, meterRegistry);
+        handleBlocked(filter);
+
+        // When
+        long start = System.nanoTime();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), response, (request, ignored) -> {
+        });
+
+        // Then
+        assertEquals(429, response.getStatus());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void doFilterWhenTurnComesWhileWaiting() throws Exception {
+        // Given
+        properties.setMaxWaitingRequests(1);
+        properties.setMaxWait(Duration.ofSeconds(10));
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties, meterRegistry);
+        Future<?> first = handleBlocked(filter);
+
+        // When
+        new Thread(() -> {
+            sleep(100);
+            release.countDown();
+        }).start();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), response, (request, ignored) -> {
+        });
+
+        // Then
+        first.get(5, TimeUnit.SECONDS);
+        assertEquals(200, response.getStatus());
+        assertEquals(0, meterRegistry.get("bank_slip.admission.rejected").counter().count());
+        assertEquals(0, meterRegistry.get("bank_slip.admission.in_flight").gauge().value());
+    }
+
+    @Test
+    void doFilterWhenAsync() throws Exception {
+        // Given
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties, meterRegistry);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), (started, ignored) -> started.startAsync());
+        double inFlightWhileAsync = meterRegistry.get("bank_slip.admission.in_flight").gauge().value();
+        request.getAsyncContext().complete();
+
+        // Then
+        assertEquals(1, inFlightWhileAsync);
+        assertEquals(0, meterRegistry.get("bank_slip.admission.in_flight").gauge().value());
+    }
+
+    @Test
+    void doFilterWhenEventStream() throws Exception {
+        // Given
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties, meterRegistry);
+        handleBlocked(filter);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept", "text/event-stream");
+
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (ignored, alsoIgnored) -> {
+        });
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertEquals(0, meterRegistry.get("bank_slip.admission.rejected").counter().count());
+    }
+
+    private Future<?> handleBlocked(AdmissionControlFilter filter) throws InterruptedException {
+        Future<?> future = executor.submit(() -> {
+            filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), blockingChain);
+            return null;
+        });
+        entered.await(5, TimeUnit.SECONDS);
+        return future;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
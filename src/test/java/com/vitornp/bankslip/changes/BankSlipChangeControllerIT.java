@@ -0,0 +1,173 @@
+package com.vitornp.bankslip.changes;
+
+import com.vitornp.bankslip.BankSlipService;
+import com.vitornp.bankslip.model.BankSlip;
+import com.vitornp.bankslip.model.BankSlipStatus;
+import com.vitornp.bankslip.model.Money;
+import com.vitornp.bankslip.repository.BankSlipStatusRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@AutoConfigureMockMvc
+class BankSlipChangeControllerIT {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private BankSlipService bankSlipService;
+
+    @Autowired
+    private BankSlipChangeService changeService;
+
+    @Autowired
+    private BankSlipStatusRepository statusRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void findAllAfter() throws Exception {
+        // Given
+        long since = changeService.findLastSequence();
+        BankSlip bankSlip = bankSlipService.save(givenBankSlip());
+        bankSlipService.paymentById(bankSlip.getId(), LocalDate.now());
+
+        // When
+        // Then
+        this.mvc.perform(get("/bankslips/changes").param("since", String.valueOf(since)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.*", hasSize(2)))
+            .andExpect(jsonPath("$[0].sequence").value(since + 1))
+            .andExpect(jsonPath("$[0].bank_slip_id").value(bankSlip.getId().toString()))
+            .andExpect(jsonPath("$[0].status").value("PENDING"))
+            .andExpect(jsonPath("$[1].sequence").value(since + 2))
+            .andExpect(jsonPath("$[1].bank_slip_id").value(bankSlip.getId().toString()))
+            .andExpect(jsonPath("$[1].status").value("PAID"))
+            .andExpect(jsonPath("$[1].date").value(LocalDate.now().toString()));
+    }
+
+    @Test
+    void findAllAfterWhenRolledBack() throws Exception {
+        // Given
+        long since = changeService.findLastSequence();
+        transactionTemplate.execute(status -> {
+            bankSlipService.save(givenBankSlip());
+            status.setRollbackOnly();
+            return null;
+        });
+        BankSlip bankSlip = bankSlipService.save(givenBankSlip());
+
+        // When
+        // Then
+        this.mvc.perform(get("/bankslips/changes").param("since", String.valueOf(since)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.*", hasSize(1)))
+            .andExpect(jsonPath("$[0].sequence").value(since + 1))
+            .andExpect(jsonPath("$[0].bank_slip_id").value(bankSlip.getId().toString()));
+    }
+
+    @Test
+    void saveStatusWhenNotInTransaction() {
+        // Given
+        BankSlipStatus bankSlipStatus = BankSlipStatus.builder().bankSlipId(UUID.randomUUID()).build();
+
+        // When
+        // Then
+        assertThrows(IllegalTransactionStateException.class, () -> statusRepository.save(bankSlipStatus));
+    }
+
+    @Test
+    void findAllAfterWhenUpToDate() throws Exception {
+        // Given
+        bankSlipService.save(givenBankSlip());
+        long since = changeService.findLastSequence();
+
+        // When
+        // Then
+        this.mvc.perform(get("/bankslips/changes").param("since", String.valueOf(since)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.*", hasSize(0)));
+    }
+
+    @Test
+    void stream() throws Exception {
+        // Given
+        MvcResult result = this.mvc.perform(get("/bankslips/changes").accept(TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        BankSlip bankSlip = bankSlipService.save(givenBankSlip());
+
+        // When
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(bankSlip.getId().toString()) && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+            content = result.getResponse().getContentAsString();
+        }
+
+        // Then
+        assertTrue(content.contains("event:change"), content);
+        assertTrue(content.contains("id:" + changeService.findLastSequence()), content);
+        assertTrue(content.contains("\"bank_slip_id\":\"" + bankSlip.getId() + "\""), content);
+    }
+
+    @Test
+    void streamById() throws Exception {
+        // Given
+        BankSlip bankSlip = bankSlipService.save(givenBankSlip());
+        MvcResult result = this.mvc.perform(get("/bankslips/{id}/events", bankSlip.getId()).accept(TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // When
+        bankSlipService.paymentById(bankSlip.getId(), LocalDate.now());
+        result.getAsyncResult(TimeUnit.SECONDS.toMillis(5));
+
+        // Then
+        String content = result.getResponse().getContentAsString();
+        int pending = content.indexOf("\"status\":\"PENDING\"");
+        assertTrue(content.contains("event:status"), content);
+        assertTrue(pending >= 0 && pending < content.indexOf("\"status\":\"PAID\""), content);
+        assertTrue(content.contains("id:" + changeService.findLastSequence()), content);
+    }
+
+    @Test
+    void streamByIdWhenNotFound() throws Exception {
+        // Given
+        // When
+        // Then
+        this.mvc.perform(get("/bankslips/{id}/events", UUID.randomUUID()).accept(TEXT_EVENT_STREAM))
+            .andExpect(status().isNotFound());
+    }
+
+    private BankSlip givenBankSlip() {
+        return BankSlip.builder()
+            .dueDate(LocalDate.now().plusDays(1))
+            .customer("Changes")
+            .totalInCents(Money.ofHundredths(1000))
+            .build();
+    }
+
+}
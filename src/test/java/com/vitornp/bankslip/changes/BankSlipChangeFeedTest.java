@@ -0,0 +1,187 @@
+package com.vitornp.bankslip.changes;
+
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import com.vitornp.bankslip.dto.BankSlipStatusValue;
+import com.vitornp.bankslip.exception.BankSlipNotFoundException;
+import com.vitornp.bankslip.exception.BankSlipSubscribersBusyException;
+import com.vitornp.bankslip.model.BankSlipStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.vitornp.bankslip.dto.BankSlipStatusValue.CANCELED;
+import static com.vitornp.bankslip.dto.BankSlipStatusValue.PAID;
+import static com.vitornp.bankslip.dto.BankSlipStatusValue.PENDING;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@ExtendWith(MockitoExtension.class)
+class BankSlipChangeFeedTest {
+
+    private BankSlipChangeFeed feed;
+
+    private BankSlipProperties properties;
+
+    @Mock
+    private BankSlipChangeService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new BankSlipProperties();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (feed != null) {
+            feed.close();
+        }
+    }
+
+    @Test
+    void subscribeWhenTooManyOnBankSlip() {
+        // Given
+        properties.getChanges().setMaxSubscribersPerBankSlip(1);
+        givenFeed();
+        UUID bankSlipId = givenBankSlip();
+        feed.subscribe(bankSlipId);
+
+        // When
+        // Then
+        assertThrows(BankSlipSubscribersBusyException.class, () -> feed.subscribe(bankSlipId));
+        assertNotNull(feed.subscribe(givenBankSlip()));
+    }
+
+    @Test
+    void subscribeWhenTooMany() {
+        // Given
+        properties.getChanges().setMaxSubscribers(1);
+        givenFeed();
+        feed.subscribe(givenBankSlip());
+
+        // When
+        // Then
+        assertThrows(BankSlipSubscribersBusyException.class, () -> feed.subscribe(0L));
+    }
+
+    @Test
+    void publishReadsHeadApartFromSubscribersBehind() throws Exception {
+        // Given
+        givenFeed();
+        UUID bankSlipId = UUID.randomUUID();
+        BankSlipStatus current = givenChange(bankSlipId, 7, PENDING);
+        BankSlipStatus older = givenChange(bankSlipId, 5, PENDING);
+        BankSlipStatus newer = givenChange(bankSlipId, 11, PAID);
+        when(service.findLastSequence()).thenReturn(10L);
+        when(service.findLastByBankSlipId(bankSlipId)).thenReturn(Optional.of(current));
+        doReturn(singletonList(newer)).when(service).findAllAfter(10, 500);
+        doReturn(singletonList(older)).when(service).findAllAfter(0, 500);
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new BankSlipChangeController(service, feed)).build();
+        MvcResult bankSlipResult = mvc.perform(get("/bankslips/{id}/events", bankSlipId).accept(TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        MvcResult changesResult = mvc.perform(get("/bankslips/changes").param("since", "0").accept(TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // When
+        feed.publish();
+        bankSlipResult.getAsyncResult(TimeUnit.SECONDS.toMillis(5));
+        String behindContent = awaitContent(changesResult, "id:5");
+        doReturn(emptyList()).when(service).findAllAfter(11, 500);
+        doReturn(singletonList(newer)).when(service).findAllAfter(5, 500);
+        feed.publish();
+
+        // Then
+        String bankSlipContent = bankSlipResult.getResponse().getContentAsString();
+        assertTrue(bankSlipContent.indexOf("id:7") < bankSlipContent.indexOf("id:11"), bankSlipContent);
+        assertFalse(bankSlipContent.contains("id:5"), bankSlipContent);
+        assertFalse(behindContent.contains("id:11"), behindContent);
+        String changesContent = awaitContent(changesResult, "id:11");
+        assertTrue(changesContent.indexOf("id:5") < changesContent.indexOf("id:11"), changesContent);
+    }
+
+    @Test
+    void publishWhenCanceledCompletesBankSlipStream() throws Exception {
+        // Given
+        givenFeed();
+        UUID bankSlipId = givenBankSlip();
+        when(service.findLastSequence()).thenReturn(1L);
+        doReturn(singletonList(givenChange(bankSlipId, 2, CANCELED))).when(service).findAllAfter(1, 500);
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new BankSlipChangeController(service, feed)).build();
+        MvcResult result = mvc.perform(get("/bankslips/{id}/events", bankSlipId).accept(TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // When
+        feed.publish();
+        result.getAsyncResult(TimeUnit.SECONDS.toMillis(5));
+
+        // Then
+        String content = result.getResponse().getContentAsString();
+        assertTrue(content.contains("\"status\":\"CANCELED\""), content);
+    }
+
+    @Test
+    void subscribeWhenNotFoundReleasesConnection() {
+        // Given
+        properties.getChanges().setMaxSubscribers(1);
+        givenFeed();
+        UUID bankSlipId = UUID.randomUUID();
+        when(service.findLastByBankSlipId(bankSlipId)).thenReturn(Optional.empty());
+
+        // When
+        assertThrows(BankSlipNotFoundException.class, () -> feed.subscribe(bankSlipId));
+
+        // Then
+        assertNotNull(feed.subscribe(0L));
+    }
+
+    private void givenFeed() {
+        feed = new BankSlipChangeFeed(service, properties, new SimpleMeterRegistry());
+    }
+
+    private UUID givenBankSlip() {
+        UUID bankSlipId = UUID.randomUUID();
+        when(service.findLastByBankSlipId(bankSlipId)).thenReturn(Optional.of(givenChange(bankSlipId, 1, PENDING)));
+        return bankSlipId;
+    }
+
+    private BankSlipStatus givenChange(UUID bankSlipId, long sequence, BankSlipStatusValue status) {
+        return BankSlipStatus.builder()
+            .bankSlipId(bankSlipId)
+            .status(status)
+            .sequence(sequence)
+            .build();
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            content = result.getResponse().getContentAsString();
+        }
+        return content;
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.vitornp.bankslip.changes;
+
+import com.vitornp.bankslip.model.BankSlipStatus;
+import com.vitornp.bankslip.repository.BankSlipStatusRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BankSlipChangeServiceTest {
+
+    private BankSlipChangeService service;
+
+    @Mock
+    private BankSlipStatusRepository statusRepository;
+
+    @BeforeEach
+    void setUp() {
+        service = new BankSlipChangeService(statusRepository);
+    }
+
+    @Test
+    void findAllAfter() {
+        // Given
+        Instant now = Instant.now();
+        List<BankSlipStatus> changes = asList(givenChange(11, now), givenChange(12, now), givenChange(13, now));
+        when(statusRepository.findAllAfter(10, 100)).thenReturn(changes);
+
+        // When
+        List<BankSlipStatus> result = service.findAllAfter(10, 100);
+
+        // Then
+        assertEquals(changes, result);
+    }
+
+    @Test
+    void findLastByBankSlipId() {
+        // Given
+        Instant now = Instant.now();
+        BankSlipStatus last = givenChange(13, now);
+        UUID bankSlipId = last.getBankSlipId();
+        when(statusRepository.findAllByBankSlipId(bankSlipId)).thenReturn(asList(givenChange(11, now), last,
+            givenChange(12, now)));
+
+        // When
+        Optional<BankSlipStatus> result = service.findLastByBankSlipId(bankSlipId);
+
+        // Then
+        assertEquals(Optional.of(last), result);
+    }
+
+    private BankSlipStatus givenChange(long sequence, Instant createdAt) {
+        return BankSlipStatus.builder()
+            .bankSlipId(UUID.randomUUID())
+            .createdAt(createdAt)
+            .sequence(sequence)
+            .build();
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.vitornp.bankslip.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class DataSourceConfigurationIT {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void readOnlyTransactionUsesReadPool() {
+        // Given
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+
+        // When
+        int[] connections = readOnly.execute(status -> {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bank_slip", Integer.class);
+            return new int[]{activeConnections(writePool()), activeConnections(readPool())};
+        });
+
+        // Then
+        assertEquals(0, connections[0]);
+        assertEquals(1, connections[1]);
+        assertEquals("bankSlipReadPool", readPool().getPoolName());
+        assertEquals(0, activeConnections(readPool()));
+    }
+
+    @Test
+    void readWriteTransactionUsesWritePool() {
+        // Given
+
+        // When
+        int[] connections = transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bank_slip", Integer.class);
+            return new int[]{activeConnections(writePool()), activeConnections(readPool())};
+        });
+
+        // Then
+        assertTrue(connections[0] >= 1);
+        assertEquals(0, connections[1]);
+        assertEquals("bankSlipPool", writePool().getPoolName());
+    }
+
+    private int activeConnections(HikariDataSource pool) {
+        return pool.getHikariPoolMXBean().getActiveConnections();
+    }
+
+    private HikariDataSource writePool() {
+        return ((ReadOnlyRoutingDataSource) dataSource).getWriteDataSource();
+    }
+
+    private HikariDataSource readPool() {
+        return ((ReadOnlyRoutingDataSource) dataSource).getReadDataSource();
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.vitornp.bankslip.fine;
+
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FineRuleEngineTest {
+
+    @Test
+    void getRuleSetByCustomer() {
+        // Given
+        BankSlipProperties properties = new BankSlipProperties();
+        properties.getFine().getRuleSets().put("contract", new BankSlipProperties.RuleSet());
+        properties.getFine().getCustomers().put("Customer With Contract", "contract");
+
+        // When
+        FineRuleEngine engine = new FineRuleEngine(properties);
+
+        // Then
+        assertEquals("contract", engine.getRuleSet("Customer With Contract").getName());
+        assertEquals("default", engine.getRuleSet("Another Customer").getName());
+        assertEquals("default", engine.getRuleSet(null).getName());
+    }
+
+    @Test
+    void createWhenCustomerRuleSetIsUnknown() {
+        // Given
+        BankSlipProperties properties = new BankSlipProperties();
+        properties.getFine().getCustomers().put("Customer With Contract", "unknown");
+
+        // When
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> new FineRuleEngine(properties));
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.vitornp.bankslip.fine;
+
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FineRuleSetTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "-1, 0",
+        "0, 0",
+        "1, 745",
+        "10, 745",
+        "11, 1490",
+        "60, 1490",
+    })
+    void fineInHundredthsWithDefaultRuleSet(long daysLate, long expected) {
+        // Given
+        FineRuleSet ruleSet = FineRuleSet.compile("default", new BankSlipProperties.RuleSet());
+
+        // When
+        long fine = ruleSet.fineInHundredths(149013, daysLate);
+
+        // Then
+        assertEquals(expected, fine);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "3, 0",
+        "4, 2000",
+        "30, 2000",
+        "31, 5000",
+    })
+    void fineInHundredthsWithGraceDaysAndUnsortedTiers(long daysLate, long expected) {
+        // Given
+        BankSlipProperties.RuleSet definition = new BankSlipProperties.RuleSet();
+        definition.setGraceDays(3);
+        definition.setTiers(asList(new BankSlipProperties.Tier(30, 500), new BankSlipProperties.Tier(0, 200)));
+
+        // When
+        long fine = FineRuleSet.compile("contract", definition).fineInHundredths(100000, daysLate);
+
+        // Then
+        assertEquals(expected, fine);
+    }
+
+    @Test
+    void fineInHundredthsWithDailyInterest() {
+        // Given
+        BankSlipProperties.RuleSet definition = new BankSlipProperties.RuleSet();
+        definition.setTiers(asList(new BankSlipProperties.Tier(0, 200)));
+        definition.setDailyInterestInBasisPoints(3);
+
+        // When
+        long fine = FineRuleSet.compile("contract", definition).fineInHundredths(149013, 15);
+
+        // Then
+        assertEquals(2980 + 671, fine);
+    }
+
+    @Test
+    void fineInHundredthsInBatch() {
+        // Given
+        FineRuleSet ruleSet = FineRuleSet.compile("default", new BankSlipProperties.RuleSet());
+        BankSlipProperties.RuleSet definition = new BankSlipProperties.RuleSet();
+        definition.setGraceDays(5);
+        FineRuleSet graceRuleSet = FineRuleSet.compile("grace", definition);
+
+        // When
+        long[] fines = FineRuleSet.fineInHundredths(
+            new FineRuleSet[]{ruleSet, graceRuleSet, ruleSet},
+            new long[]{149013, 149013, 149013},
+            new long[]{5, 5, 11}
+        );
+
+        // Then
+        assertArrayEquals(new long[]{745, 0, 1490}, fines);
+    }
+
+    @Test
+    void compileWhenNegativeRate() {
+        // Given
+        BankSlipProperties.RuleSet definition = new BankSlipProperties.RuleSet();
+        definition.setTiers(asList(new BankSlipProperties.Tier(0, -1)));
+
+        // When
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> FineRuleSet.compile("contract", definition));
+    }
+
+}
@@ -0,0 +1,209 @@
+package com.vitornp.bankslip.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import com.vitornp.bankslip.exception.IdempotencyKeyInProgressException;
+import com.vitornp.bankslip.exception.IdempotencyKeyReusedException;
+import com.vitornp.bankslip.exception.InvalidIdempotencyKeyException;
+import com.vitornp.bankslip.model.IdempotencyKey;
+import com.vitornp.bankslip.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private IdempotencyService service;
+
+    @Mock
+    private IdempotencyKeyRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        service = new IdempotencyService(repository, Caffeine.newBuilder().build(), new ObjectMapper(),
+            new BankSlipProperties());
+    }
+
+    @Test
+    void executeWhenRetried() {
+        // Given
+        AtomicInteger runs = new AtomicInteger();
+        when(repository.updateResponse(any(), any())).thenReturn(true);
+
+        // When
+        String first = service.execute("operation", "key", "request", String.class,
+            () -> "run " + runs.incrementAndGet());
+        String retry = service.execute("operation", "key", "request", String.class,
+            () -> "run " + runs.incrementAndGet());
+
+        // Then
+        assertEquals("run 1", first);
+        assertEquals("run 1", retry);
+        verify(repository).save(any());
+        verify(repository).updateResponse(any(), eq("\"run 1\""));
+    }
+
+    @Test
+    void executeWhenRetriedConcurrently() throws Exception {
+        // Given
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        List<Future<String>> responses = new ArrayList<>();
+        responses.add(executor.submit(() -> service.execute("operation", "key", "request", String.class, () -> {
+            started.countDown();
+            await(release);
+            return "run " + runs.incrementAndGet();
+        })));
+        started.await();
+        for (int i = 0; i < 7; i++) {
+            responses.add(executor.submit(() -> service.execute("operation", "key", "request", String.class,
+                () -> "run " + runs.incrementAndGet())));
+        }
+        release.countDown();
+
+        // Then
+        for (Future<String> response : responses) {
+            assertEquals("run 1", response.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, runs.get());
+        executor.shutdown();
+    }
+
+    @Test
+    void executeWhenStoredByAnotherInstance() {
+        // Given
+        givenStored("\"stored\"", null);
+
+        // When
+        String response = service.execute("operation", "key", "request", String.class, () -> "run");
+
+        // Then
+        assertEquals("stored", response);
+    }
+
+    @Test
+    void executeWhenInProgressOnAnotherInstance() {
+        // Given
+        givenStored(null, Instant.now().plusSeconds(60));
+
+        // When
+        // Then
+        assertThrows(IdempotencyKeyInProgressException.class,
+            () -> service.execute("operation", "key", "request", String.class, () -> "run"));
+    }
+
+    @Test
+    void executeWhenInProgressLockExpired() {
+        // Given
+        givenStored(null, Instant.now().minusSeconds(1));
+        when(repository.lock(any(), any())).thenReturn(true);
+        when(repository.updateResponse(any(), eq("\"run\""))).thenReturn(true);
+
+        // When
+        String response = service.execute("operation", "key", "request", String.class, () -> "run");
+
+        // Then
+        assertEquals("run", response);
+    }
+
+    @Test
+    void executeWhenInProgressLockExpiredAndTakenOver() {
+        // Given
+        givenStored(null, Instant.now().minusSeconds(1));
+        when(repository.lock(any(), any())).thenReturn(false);
+
+        // When
+        // Then
+        assertThrows(IdempotencyKeyInProgressException.class,
+            () -> service.execute("operation", "key", "request", String.class, () -> "run"));
+    }
+
+    @Test
+    void executeWhenRequestDiffers() {
+        // Given
+        service.execute("operation", "key", "request", String.class, () -> "run");
+
+        // When
+        // Then
+        assertThrows(IdempotencyKeyReusedException.class,
+            () -> service.execute("operation", "key", "other request", String.class, () -> "run"));
+    }
+
+    @Test
+    void executeWhenActionFails() {
+        // Given
+
+        // When
+        assertThrows(IllegalStateException.class, () -> service.execute("operation", "key", "request", String.class,
+            () -> {
+                throw new IllegalStateException();
+            }));
+        String retry = service.execute("operation", "key", "request", String.class, () -> "run");
+
+        // Then
+        assertEquals("run", retry);
+        verify(repository).delete(any());
+    }
+
+    @Test
+    void executeWhenKeyIsTooLong() {
+        // Given
+        String key = new String(new char[IdempotencyService.MAX_KEY_LENGTH + 1]).replace('\0', 'k');
+
+        // When
+        // Then
+        assertThrows(InvalidIdempotencyKeyException.class,
+            () -> service.execute("operation", key, "request", String.class, () -> "run"));
+        verifyZeroInteractions(repository);
+    }
+
+    private void givenStored(String response, Instant lockedUntil) {
+        doThrow(new DuplicateKeyException("duplicate")).when(repository).save(any());
+        when(repository.find(eq("operation"), eq("key"), any())).thenReturn(Optional.of(IdempotencyKey.builder()
+            .operation("operation")
+            .key("key")
+            .requestHash(service.hash("request"))
+            .response(response)
+            .lockedUntil(lockedUntil)
+            .build()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.vitornp.bankslip.model;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @CsvSource({
+        "1490.13, 50, 7.45",
+        "1490.13, 100, 14.90",
+        "0.10, 50, 0.00",
+        "1.00, 50, 0.01",
+        "0.99, 50, 0.00",
+        "2000.00, 100, 20.00",
+        "-1.00, 50, -0.01",
+    })
+    void multiplyBasisPointsRoundsHalfUp(String value, long basisPoints, String expected) {
+        // Given
+        Money money = Money.of(new BigDecimal(value));
+
+        // When
+        Money result = money.multiplyBasisPoints(basisPoints);
+
+        // Then
+        assertEquals(new BigDecimal(value).multiply(BigDecimal.valueOf(basisPoints, 4))
+            .setScale(2, BigDecimal.ROUND_HALF_UP), result.toBigDecimal());
+        assertEquals(expected, result.toString());
+    }
+
+    @Test
+    void ofWhenMoreThanTwoDecimalPlaces() {
+        // Given
+        BigDecimal value = new BigDecimal("0.123");
+
+        // When
+        // Then
+        assertThrows(ArithmeticException.class, () -> Money.of(value));
+    }
+
+    @Test
+    void serializeAsNumberWithTwoDecimalPlaces() throws Exception {
+        // Given
+        Money money = Money.of(new BigDecimal("0.1"));
+
+        // When
+        String json = objectMapper.writeValueAsString(money);
+
+        // Then
+        assertEquals("0.10", json);
+    }
+
+    @Test
+    void deserializeFromNumber() throws Exception {
+        // Given
+        String json = "1490.13";
+
+        // When
+        Money money = objectMapper.readValue(json, Money.class);
+
+        // Then
+        assertEquals(Money.ofHundredths(149013), money);
+    }
+
+    @Test
+    void deserializeWhenMoreThanTwoDecimalPlaces() {
+        // Given
+        String json = "0.123";
+
+        // When
+        // Then
+        assertThrows(JsonMappingException.class, () -> objectMapper.readValue(json, Money.class));
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.vitornp.bankslip.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidsTest {
+
+    @Test
+    void timeOrdered() {
+        // Given
+        long before = System.currentTimeMillis();
+
+        // When
+        UUID uuid = Uuids.timeOrdered();
+
+        // Then
+        long timestamp = uuid.getMostSignificantBits() >>> 16;
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertTrue(timestamp >= before && timestamp <= System.currentTimeMillis() + 1, uuid.toString());
+    }
+
+    @Test
+    void timeOrderedIsMonotonic() {
+        // Given
+        UUID previous = Uuids.timeOrdered();
+
+        // When
+        // Then
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = Uuids.timeOrdered();
+            assertTrue(previous.toString().compareTo(next.toString()) < 0, previous + " >= " + next);
+            previous = next;
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.vitornp.bankslip.overdue;
+
+import com.vitornp.bankslip.BankSlipService;
+import com.vitornp.bankslip.model.BankSlip;
+import com.vitornp.bankslip.model.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@AutoConfigureMockMvc
+class OverdueControllerIT {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BankSlipService bankSlipService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM bank_slip");
+    }
+
+    @Test
+    void sweep() throws Exception {
+        // Given
+        LocalDate today = LocalDate.now();
+        bankSlipService.save(givenBankSlip(today.minusDays(5), "Test 1", "1000"));
+        bankSlipService.save(givenBankSlip(today.minusDays(40), "Test 1", "2000"));
+        bankSlipService.save(givenBankSlip(today.minusDays(11), "Test 2", "3000"));
+        bankSlipService.save(givenBankSlip(today, "Test 2", "4000"));
+        BankSlip paid = bankSlipService.save(givenBankSlip(today.minusDays(20), "Test 3", "5000"));
+        bankSlipService.paymentById(paid.getId(), today);
+
+        // When
+        ResultActions resultActions = this.mvc.perform(asyncDispatch(performSweep()));
+
+        // Then
+        resultActions
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("date").value(today.toString()))
+            .andExpect(jsonPath("bank_slips").value(3))
+            .andExpect(jsonPath("removed").value(0));
+        this.mvc.perform(get("/overdue/customers"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.*", hasSize(2)))
+            .andExpect(jsonPath("$[0].customer").value("Test 1"))
+            .andExpect(jsonPath("$[0].bank_slips").value(2))
+            .andExpect(jsonPath("$[0].total_in_cents").value(3000.0))
+            .andExpect(jsonPath("$[0].fine").value(25.0))
+            .andExpect(jsonPath("$[1].customer").value("Test 2"))
+            .andExpect(jsonPath("$[1].bank_slips").value(1))
+            .andExpect(jsonPath("$[1].total_in_cents").value(3000.0))
+            .andExpect(jsonPath("$[1].fine").value(30.0));
+        this.mvc.perform(get("/overdue/days-overdue"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.*", hasSize(3)))
+            .andExpect(jsonPath("$[0].days_overdue").value("1-10"))
+            .andExpect(jsonPath("$[0].fine").value(5.0))
+            .andExpect(jsonPath("$[1].days_overdue").value("11-30"))
+            .andExpect(jsonPath("$[1].fine").value(30.0))
+            .andExpect(jsonPath("$[2].days_overdue").value("31-60"))
+            .andExpect(jsonPath("$[2].fine").value(20.0));
+    }
+
+    @Test
+    void sweepRemovesBankSlipsNoLongerOverdue() throws Exception {
+        // Given
+        LocalDate today = LocalDate.now();
+        BankSlip paid = bankSlipService.save(givenBankSlip(today.minusDays(5), "Test 1", "1000"));
+        bankSlipService.save(givenBankSlip(today.minusDays(5), "Test 1", "2000"));
+        this.mvc.perform(asyncDispatch(performSweep())).andExpect(status().isOk());
+        bankSlipService.paymentById(paid.getId(), today);
+
+        // When
+        ResultActions resultActions = this.mvc.perform(asyncDispatch(performSweep()));
+
+        // Then
+        resultActions
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("bank_slips").value(1))
+            .andExpect(jsonPath("removed").value(1));
+        this.mvc.perform(get("/overdue/customers"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].bank_slips").value(1))
+            .andExpect(jsonPath("$[0].total_in_cents").value(2000.0));
+        this.mvc.perform(get("/overdue/sweeps/last"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("removed").value(1));
+    }
+
+    private MvcResult performSweep() throws Exception {
+        return this.mvc.perform(post("/overdue/sweeps"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    }
+
+    private BankSlip givenBankSlip(LocalDate dueDate, String customer, String totalInCents) {
+        return BankSlip.builder()
+            .dueDate(dueDate)
+            .customer(customer)
+            .totalInCents(Money.of(new BigDecimal(totalInCents)))
+            .build();
+    }
+
+}
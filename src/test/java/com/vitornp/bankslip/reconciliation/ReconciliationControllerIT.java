@@ -0,0 +1,185 @@
+package com.vitornp.bankslip.reconciliation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vitornp.bankslip.BankSlipService;
+import com.vitornp.bankslip.configuration.BankSlipProperties;
+import com.vitornp.bankslip.model.BankSlip;
+import com.vitornp.bankslip.model.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static com.vitornp.bankslip.dto.BankSlipStatusValue.CANCELED;
+import static com.vitornp.bankslip.dto.BankSlipStatusValue.PAID;
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@AutoConfigureMockMvc
+class ReconciliationControllerIT {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BankSlipService bankSlipService;
+
+    @Autowired
+    private BankSlipProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM bank_slip");
+    }
+
+    @Test
+    void importFile() throws Exception {
+        // Given
+        BankSlip paid = bankSlipService.save(givenBankSlip("Test 1"));
+        BankSlip canceled = bankSlipService.save(givenBankSlip("Test 2"));
+        UUID unknownId = UUID.randomUUID();
+        String fileName = "reconciliation-" + UUID.randomUUID() + ".csv";
+        Path file = Paths.get(properties.getReconciliation().getDirectory(), fileName);
+        Files.write(file, (
+            "# bank_slip_id,status,date\n" +
+                paid.getId() + ",PAID,2018-11-10\n" +
+                canceled.getId() + ",CANCELED,\r\n" +
+                "\n" +
+                unknownId + ",PAID,2018-11-10\n" +
+                "invalid,PAID,2018-11-10\n" +
+                paid.getId() + ",CANCELED,"
+        ).getBytes(StandardCharsets.UTF_8));
+
+        // When
+        String response = this.mvc.perform(post("/reconciliations").param("file_name", fileName))
+            .andExpect(status().isAccepted())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        JsonNode reconciliation = awaitFinished(objectMapper.readTree(response).get("id").asText());
+
+        // Then
+        assertEquals("COMPLETED", reconciliation.get("status").asText());
+        assertEquals(7, reconciliation.get("lines_read").asLong());
+        assertEquals(2, reconciliation.get("lines_succeeded").asLong());
+        assertEquals(3, reconciliation.get("lines_failed").asLong());
+        Map<Long, String> errors = new TreeMap<>();
+        reconciliation.get("errors")
+            .forEach(error -> errors.put(error.get("line").asLong(), error.get("message").asText()));
+        assertEquals(asList(5L, 6L, 7L), new ArrayList<>(errors.keySet()));
+        assertEquals("NOT_FOUND", errors.get(5L));
+        assertEquals("NOT_CANCELABLE", errors.get(7L));
+        assertEquals(PAID, bankSlipService.findDetailById(paid.getId()).getStatus());
+        assertEquals(LocalDate.parse("2018-11-10"), bankSlipService.findDetailById(paid.getId()).getPaymentDate());
+        assertEquals(CANCELED, bankSlipService.findDetailById(canceled.getId()).getStatus());
+        Files.delete(file);
+    }
+
+    @Test
+    void importUpload() throws Exception {
+        // Given
+        BankSlip paid = bankSlipService.save(givenBankSlip("Test 1"));
+        MockMultipartFile file = new MockMultipartFile("file", "reconciliation.csv", "text/csv",
+            (paid.getId() + ",PAID,2018-11-10\n").getBytes(StandardCharsets.UTF_8));
+
+        // When
+        String response = this.mvc.perform(multipart("/reconciliations").file(file))
+            .andExpect(status().isAccepted())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        JsonNode reconciliation = awaitFinished(objectMapper.readTree(response).get("id").asText());
+
+        // Then
+        assertEquals("COMPLETED", reconciliation.get("status").asText());
+        assertEquals("reconciliation.csv", reconciliation.get("file_name").asText());
+        assertEquals(1, reconciliation.get("lines_succeeded").asLong());
+        assertEquals(PAID, bankSlipService.findDetailById(paid.getId()).getStatus());
+    }
+
+    @Test
+    void importUploadWhenLineTooLong() throws Exception {
+        // Given
+        char[] line = new char[10_000];
+        Arrays.fill(line, 'x');
+        MockMultipartFile file = new MockMultipartFile("file", "reconciliation.csv", "text/csv",
+            new String(line).getBytes(StandardCharsets.UTF_8));
+
+        // When
+        String response = this.mvc.perform(multipart("/reconciliations").file(file))
+            .andExpect(status().isAccepted())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        JsonNode reconciliation = awaitFinished(objectMapper.readTree(response).get("id").asText());
+
+        // Then
+        assertEquals("FAILED", reconciliation.get("status").asText());
+        assertEquals("Line 1 is longer than 4096 bytes", reconciliation.get("failure").asText());
+    }
+
+    @Test
+    void importFileWhenNotFound() throws Exception {
+        // Given
+
+        // When
+        this.mvc.perform(post("/reconciliations").param("file_name", "../not-found.csv"))
+
+            // Then
+            .andExpect(status().isNotFound());
+    }
+
+    private JsonNode awaitFinished(String id) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String response = this.mvc.perform(get("/reconciliations/" + id))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+            JsonNode reconciliation = objectMapper.readTree(response);
+            if (!"RUNNING".equals(reconciliation.get("status").asText())) {
+                return reconciliation;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Reconciliation " + id + " did not finish");
+    }
+
+    private BankSlip givenBankSlip(String customer) {
+        return BankSlip.builder()
+            .dueDate(LocalDate.now().plusDays(1))
+            .customer(customer)
+            .totalInCents(Money.of(new BigDecimal("1000")))
+            .build();
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.vitornp.bankslip.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BankSlipIndexesIT {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void findAllStatusesByBankSlipIdUsesIndex() {
+        String plan = explain("SELECT * FROM bank_slip_status WHERE bank_slip_id = RANDOM_UUID()");
+        assertTrue(plan.contains("BANK_SLIP_STATUS_BANK_SLIP_ID_CREATED_AT_IDX"), plan);
+    }
+
+    @Test
+    void findAllByPageUsesIndex() {
+        String plan = explain("SELECT * FROM bank_slip ORDER BY created_at DESC, id DESC LIMIT 10");
+        assertTrue(plan.contains("BANK_SLIP_CREATED_AT_IDX"), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    void findAllByNextPageUsesIndex() {
+        String plan = explain("SELECT * FROM bank_slip " +
+            "WHERE created_at <= CURRENT_TIMESTAMP() AND (created_at < CURRENT_TIMESTAMP() OR id < RANDOM_UUID()) " +
+            "ORDER BY created_at DESC, id DESC LIMIT 10");
+        assertTrue(plan.contains("BANK_SLIP_CREATED_AT_IDX: CREATED_AT <= CURRENT_TIMESTAMP()"), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    void findAllByCustomerUsesIndex() {
+        String plan = explain("SELECT * FROM bank_slip WHERE costumer = 'Test' " +
+            "ORDER BY created_at DESC, id DESC LIMIT 10");
+        assertTrue(plan.contains("BANK_SLIP_COSTUMER_CREATED_AT_IDX: COSTUMER = 'Test'"), plan);
+    }
+
+    @Test
+    void findAllByStatusUsesIndex() {
+        String plan = explain("SELECT * FROM bank_slip WHERE current_status = 'PENDING' " +
+            "ORDER BY created_at DESC, id DESC LIMIT 10");
+        assertTrue(plan.contains("_IDX: CURRENT_STATUS = 'PENDING'"), plan);
+    }
+
+    @Test
+    void findAllByDueDateUsesIndex() {
+        String plan = explain("SELECT * FROM bank_slip " +
+            "WHERE due_date >= CURRENT_DATE() AND due_date <= CURRENT_DATE()");
+        assertTrue(plan.contains("BANK_SLIP_DUE_DATE_IDX"), plan);
+    }
+
+    @Test
+    void findAllStatusesAfterSequenceUsesIndex() {
+        String plan = explain("SELECT * FROM bank_slip_status WHERE sequence > 10 ORDER BY sequence LIMIT 10");
+        assertTrue(plan.contains("BANK_SLIP_STATUS_SEQUENCE_IDX: SEQUENCE > 10"), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.vitornp.bankslip.stats;
+
+import com.vitornp.bankslip.BankSlipService;
+import com.vitornp.bankslip.model.BankSlip;
+import com.vitornp.bankslip.model.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@AutoConfigureMockMvc
+class BankSlipStatsControllerIT {
+
+    private static final LocalDate DUE_DATE = LocalDate.of(2030, 1, 15);
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BankSlipService bankSlipService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM bank_slip");
+        jdbcTemplate.execute("DELETE FROM bank_slip_counter");
+    }
+
+    @Test
+    void findAllByStatus() throws Exception {
+        // Given
+        givenBankSlips();
+
+        // When
+        ResultActions resultActions = this.mvc.perform(get("/bankslips/stats/status"));
+
+        // Then
+        resultActions
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.*", hasSize(3)))
+            .andExpect(jsonPath("$[0].status").value("CANCELED"))
+            .andExpect(jsonPath("$[0].bank_slips").value(1))
+            .andExpect(jsonPath("$[0].total_in_cents").value(4000.0))
+            .andExpect(jsonPath("$[1].status").value("PAID"))
+            .andExpect(jsonPath("$[1].bank_slips").value(2))
+            .andExpect(jsonPath("$[1].total_in_cents").value(4000.0))
+            .andExpect(jsonPath("$[2].status").value("PENDING"))
+            .andExpect(jsonPath("$[2].bank_slips").value(1))
+            .andExpect(jsonPath("$[2].total_in_cents").value(2000.0));
+    }
+
+    @Test
+    void findAllByCustomer() throws Exception {
+        // Given
+        givenBankSlips();
+
+        // When
+        ResultActions resultActions = this.mvc.perform(get("/bankslips/stats/customers"));
+
+        // Then
+        resultActions
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.*", hasSize(4)))
+            .andExpect(jsonPath("$[0].customer").value("Test 1"))
+            .andExpect(jsonPath("$[0].status").value("PAID"))
+            .andExpect(jsonPath("$[0].bank_slips").value(1))
+            .andExpect(jsonPath("$[1].customer").value("Test 1"))
+            .andExpect(jsonPath("$[1].status").value("PENDING"))
+            .andExpect(jsonPath("$[1].bank_slips").value(1))
+            .andExpect(jsonPath("$[2].customer").value("Test 2"))
+            .andExpect(jsonPath("$[2].status").value("CANCELED"))
+            .andExpect(jsonPath("$[2].bank_slips").value(1))
+            .andExpect(jsonPath("$[3].customer").value("Test 3"))
+            .andExpect(jsonPath("$[3].status").value("PAID"))
+            .andExpect(jsonPath("$[3].total_in_cents").value(3000.0));
+    }
+
+    @Test
+    void findAllByDueMonth() throws Exception {
+        // Given
+        givenBankSlips();
+
+        // When
+        ResultActions resultActions = this.mvc.perform(get("/bankslips/stats/due-months"));
+
+        // Then
+        resultActions
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.*", hasSize(4)))
+            .andExpect(jsonPath("$[0].due_month").value("2030-01"))
+            .andExpect(jsonPath("$[0].status").value("CANCELED"))
+            .andExpect(jsonPath("$[1].due_month").value("2030-01"))
+            .andExpect(jsonPath("$[1].status").value("PAID"))
+            .andExpect(jsonPath("$[1].bank_slips").value(1))
+            .andExpect(jsonPath("$[2].due_month").value("2030-01"))
+            .andExpect(jsonPath("$[2].status").value("PENDING"))
+            .andExpect(jsonPath("$[3].due_month").value("2030-02"))
+            .andExpect(jsonPath("$[3].status").value("PAID"))
+            .andExpect(jsonPath("$[3].total_in_cents").value(3000.0));
+    }
+
+    @Test
+    void rebuild() throws Exception {
+        // Given
+        givenBankSlips();
+        jdbcTemplate.execute("UPDATE bank_slip_counter SET bank_slips = 42");
+
+        // When
+        ResultActions resultActions = this.mvc.perform(post("/bankslips/stats/rebuild"));
+
+        // Then
+        resultActions.andExpect(status().isNoContent());
+        this.mvc.perform(get("/bankslips/stats/status"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.*", hasSize(3)))
+            .andExpect(jsonPath("$[0].bank_slips").value(1))
+            .andExpect(jsonPath("$[1].bank_slips").value(2))
+            .andExpect(jsonPath("$[1].total_in_cents").value(4000.0))
+            .andExpect(jsonPath("$[2].bank_slips").value(1));
+    }
+
+    private void givenBankSlips() {
+        BankSlip paid = bankSlipService.save(givenBankSlip(DUE_DATE, "Test 1", "1000"));
+        bankSlipService.save(givenBankSlip(DUE_DATE, "Test 1", "2000"));
+        BankSlip canceled = bankSlipService.save(givenBankSlip(DUE_DATE, "Test 2", "4000"));
+        BankSlip paidInBatch = bankSlipService.saveAll(singletonList(
+            givenBankSlip(DUE_DATE.plusMonths(1), "Test 3", "3000"))).get(0);
+        bankSlipService.paymentById(paid.getId(), DUE_DATE);
+        bankSlipService.paymentById(paid.getId(), DUE_DATE);
+        bankSlipService.cancelAll(asList(canceled.getId(), canceled.getId()));
+        bankSlipService.paymentAll(singletonMap(paidInBatch.getId(), DUE_DATE));
+    }
+
+    private BankSlip givenBankSlip(LocalDate dueDate, String customer, String totalInCents) {
+        return BankSlip.builder()
+            .dueDate(dueDate)
+            .customer(customer)
+            .totalInCents(Money.of(new BigDecimal(totalInCents)))
+            .build();
+    }
+
+}